@@ -0,0 +1,67 @@
+package com.ramsbaby.preply.component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ramsbaby.preply.dto.Money;
+
+/**
+ * 요약 집계 단계: 통화별 합계와 금액 포맷.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DailySummaryBenchmark {
+
+    private static final String[] CURRENCIES = { "USD", "USD", "USD", "EUR", "KRW" };
+
+    // 하루 레슨 수
+    @Param({ "8", "64" })
+    public int rowsPerDay;
+
+    private List<DailySummaryJob.Row> rows;
+    private BigDecimal[] amounts;
+    private int i;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(7L);
+        rows = new ArrayList<>(rowsPerDay);
+        for (int k = 0; k < rowsPerDay; k++) {
+            BigDecimal amount = new BigDecimal((15 + rnd.nextInt(30)) + ".50").multiply(new BigDecimal("0.82"));
+            rows.add(new DailySummaryJob.Row("student-" + k, new Money(amount, CURRENCIES[k % CURRENCIES.length])));
+        }
+        amounts = rows.stream().map(r -> r.money().amount()).toArray(BigDecimal[]::new);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> computeTotalsByCurrency() {
+        return DailySummaryJob.computeTotalsByCurrency(rows);
+    }
+
+    @Benchmark
+    public String fmtAmount() {
+        int k = i++ % amounts.length;
+        return DailySummaryJob.fmtAmount(amounts[k], CURRENCIES[k % CURRENCIES.length]);
+    }
+}
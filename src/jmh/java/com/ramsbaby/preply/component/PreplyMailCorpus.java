@@ -0,0 +1,116 @@
+package com.ramsbaby.preply.component;
+
+import java.io.ByteArrayOutputStream;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+
+/**
+ * 벤치마크용 Preply 메일 코퍼스 생성기.
+ * 실제 메일처럼 multipart/alternative(text/plain + text/html), 긴 style 헤더, 표 레이아웃을 쓰고
+ * 라벨/값 사이에 NBSP/NNBSP/ZWSP 잡음을 섞는다. 시드 고정이라 실행마다 같은 코퍼스가 나온다.
+ */
+public final class PreplyMailCorpus {
+
+    public enum Kind {
+        BOOKING_KO, BOOKING_EN, CANCELLATION
+    }
+
+    record Mail(Kind kind, String subject, byte[] mime, String html, ZonedDateTime receivedAt) {
+    }
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final String[] FIRST = { "Camila", "Roth", "Mateo", "Sofia", "Lucas", "Yuki", "Ana", "Noah",
+            "Liam", "Emma", "Olivia", "Hiro", "Min", "Jae", "Valentina", "Diego" };
+    // 라벨/값 사이 잡음: NBSP, NNBSP, ZWSP, 엔티티 NBSP
+    private static final String[] NOISE = { " ", "\u00A0", "\u202F", "\u200B ", " \u200B", "&nbsp;",
+            "\u00A0\u200B" };
+    private static final String STYLE = "<style type=\"text/css\">" + ".btn{display:inline-block;padding:12px 24px}"
+            .repeat(60) + "</style>";
+
+    private PreplyMailCorpus() {
+    }
+
+    static List<Mail> generate(Kind kind, int size, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        Session session = Session.getInstance(new Properties());
+        List<Mail> out = new ArrayList<>(size);
+        ZonedDateTime base = ZonedDateTime.of(2025, 9, 1, 9, 0, 0, 0, KST);
+        for (int i = 0; i < size; i++) {
+            String student = FIRST[rnd.nextInt(FIRST.length)] + " " + (char) ('A' + rnd.nextInt(26)) + ".";
+            if (rnd.nextInt(4) == 0)
+                student += " (" + FIRST[rnd.nextInt(FIRST.length)] + ")";
+            String price = (15 + rnd.nextInt(30)) + "." + (rnd.nextBoolean() ? "00" : "50");
+            ZonedDateTime receivedAt = base.plusHours(rnd.nextInt(24 * 60));
+            String noise = NOISE[rnd.nextInt(NOISE.length)];
+            String subject;
+            String html;
+            switch (kind) {
+                case BOOKING_KO -> {
+                    subject = student + " 학생이 레슨을 예약했어요";
+                    html = page(row("학생:", noise + student) + row("레슨 시간:", "9월 " + (1 + rnd.nextInt(28))
+                            + "일 오후 7:00") + row("비용:", "$" + noise + price));
+                }
+                case BOOKING_EN -> {
+                    subject = student + " scheduled a new lesson";
+                    html = page(row("Student:", noise + student) + row("Lesson time:", "Sep " + (1 + rnd.nextInt(28))
+                            + ", 7:00 PM") + row("Price:", price + noise + "USD"));
+                }
+                default -> {
+                    String name = FIRST[rnd.nextInt(FIRST.length)];
+                    subject = name + " 학생이 수업을 취소했습니다";
+                    html = page("<p>" + name + " 학생이 레슨을 예정된 시작 시간 12시간 전에 취소했습니다." + noise + "</p>"
+                            + row("레슨:", receivedAt.getMonthValue() + "월 " + receivedAt.getDayOfMonth() + "일")
+                            + "<p>레슨 비용" + noise + price + " $ 을 지불해 드립니다.</p>");
+                }
+            }
+            out.add(new Mail(kind, subject, mime(session, subject, html, receivedAt, rnd.nextBoolean()), html,
+                    receivedAt));
+        }
+        return out;
+    }
+
+    private static String row(String label, String value) {
+        return "<tr><td style=\"padding:4px;color:#6a6a80\">" + label + "</td><td><span><b>" + value
+                + "</b></span></td></tr>";
+    }
+
+    private static String page(String rows) {
+        return "<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Preply</title>" + STYLE
+                + "</head><body><!-- header --><table width=\"100%\"><tr><td><img src=\"logo.png\" alt=\"Preply\">"
+                + "</td></tr></table><table class=\"details\">" + rows + "</table>"
+                + "<p>Preply&nbsp;Inc. &copy; 2025 &middot; <a href=\"https://preply.com\">preply.com</a></p>"
+                + "</body></html>";
+    }
+
+    private static byte[] mime(Session session, String subject, String html, ZonedDateTime receivedAt,
+            boolean base64) {
+        try {
+            MimeMessage msg = new MimeMessage(session);
+            msg.setSubject(subject, "UTF-8");
+            msg.setSentDate(Date.from(receivedAt.toInstant()));
+            MimeBodyPart text = new MimeBodyPart();
+            text.setText(html.replaceAll("<[^>]+>", " "), "UTF-8");
+            MimeBodyPart htmlPart = new MimeBodyPart();
+            htmlPart.setText(html, "UTF-8", "html");
+            htmlPart.setHeader("Content-Transfer-Encoding", base64 ? "base64" : "quoted-printable");
+            MimeMultipart alt = new MimeMultipart("alternative", text, htmlPart);
+            msg.setContent(alt);
+            msg.saveChanges();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            msg.writeTo(bos);
+            return bos.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException("코퍼스 생성 실패", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ramsbaby.preply.component;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * 메일 파싱 단계별 처리량/할당량.
+ * - mimeBody: MIME 바이트 → 본문 파트 추출(디코딩 포함)
+ * - toText: HTML → 정규화 텍스트 (구 Jsoup + cleanText 단계)
+ * - parse: 텍스트 → RateEntry/Compensation (구 extractRate / parseCancellationCompensation)
+ * - endToEnd: MIME 바이트 → 결과
+ * - normalize: 학생 이름 정규화
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PreplyMailParserBenchmark {
+
+    private static final int CORPUS_SIZE = 256; // 2의 거듭제곱 (인덱스 마스킹)
+
+    @Param({ "BOOKING_KO", "BOOKING_EN", "CANCELLATION" })
+    public PreplyMailCorpus.Kind kind;
+
+    private List<PreplyMailCorpus.Mail> corpus;
+    private String[] texts;
+    private String[] names;
+    private MailTemplate<?> template;
+    private Session session;
+    private int i;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        corpus = PreplyMailCorpus.generate(kind, CORPUS_SIZE, 42L);
+        texts = corpus.stream().map(m -> PreplyMailParser.toText(m.html())).toArray(String[]::new);
+        names = corpus.stream().map(m -> m.subject().replaceAll(" (학생이|scheduled).*$", "")).toArray(String[]::new);
+        template = kind == PreplyMailCorpus.Kind.CANCELLATION
+                ? PreplyMailParser.CANCELLATION_COMPENSATION
+                : PreplyMailParser.BOOKING;
+        session = Session.getInstance(new Properties());
+    }
+
+    private int next() {
+        return i++ & (CORPUS_SIZE - 1);
+    }
+
+    @Benchmark
+    public String mimeBody() throws Exception {
+        var m = corpus.get(next());
+        return PreplyMailParser.bodyOf(new MimeMessage(session, new ByteArrayInputStream(m.mime())));
+    }
+
+    @Benchmark
+    public String toText() {
+        return PreplyMailParser.toText(corpus.get(next()).html());
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        int k = next();
+        var m = corpus.get(k);
+        bh.consume(template.parse(m.subject(), texts[k], m.receivedAt()));
+    }
+
+    @Benchmark
+    public void endToEnd(Blackhole bh) throws Exception {
+        var m = corpus.get(next());
+        String body = PreplyMailParser.bodyOf(new MimeMessage(session, new ByteArrayInputStream(m.mime())));
+        bh.consume(template.parse(m.subject(), PreplyMailParser.toText(body), m.receivedAt()));
+    }
+
+    @Benchmark
+    public String normalize() {
+        return PreplyRateCacheLoader.normalize(names[next()]);
+    }
+}
@@ -1,30 +1,39 @@
 package com.ramsbaby;
 
+import java.lang.management.ManagementFactory;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.event.EventListener;
 
-import com.ramsbaby.preply.component.DailySummaryJob;
+import com.ramsbaby.preply.component.SummaryRunService;
 import com.ramsbaby.preply.config.AppProps;
 
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan
 @RequiredArgsConstructor
+@Slf4j
 public class Main {
-    private final DailySummaryJob job;
+    private final SummaryRunService runs;
     private final AppProps props;
 
     public static void main(String[] args) {
         SpringApplication.run(Main.class, args);
     }
 
-    @PostConstruct
-    public void init() throws Exception {
+    // 기동이 끝난 뒤 자동 실행을 백그라운드로 건다 (컨텍스트 기동/헬스 체크를 막지 않음)
+    // 기동 시간 벤치마크(./gradlew startupBenchmark)는 아래 "기동 완료" 로그를 기준으로 잰다
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("기동 완료: JVM 시작 후 {}ms", ManagementFactory.getRuntimeMXBean().getUptime());
         if (props.autorun()) {
-            job.run();
+            var status = runs.submit();
+            log.info("자동 실행 시작 (runId={})", status.id());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.ramsbaby.preply.api;
+
+import java.time.LocalDate;
+
+import com.ramsbaby.preply.component.EarningsLedger;
+import com.ramsbaby.preply.dto.LedgerEntry;
+import com.ramsbaby.preply.dto.LedgerReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/ledger")
+@RequiredArgsConstructor
+public class LedgerController {
+    private final EarningsLedger ledger;
+
+    // 기간 수입 리포트 (by=day|week|month, from/to 생략 시 기록 전체)
+    @GetMapping
+    public ResponseEntity<LedgerReport> report(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String by) {
+        return report(ledger, from, to, by);
+    }
+
+    // 하루 상세 (레슨/보상 줄과 적용 환율)
+    @GetMapping("/{date}")
+    public ResponseEntity<LedgerEntry> entry(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.of(ledger.entry(date));
+    }
+
+    // 잘못된 by 또는 from > to 는 400
+    static ResponseEntity<LedgerReport> report(EarningsLedger ledger, LocalDate from, LocalDate to, String by) {
+        try {
+            return ResponseEntity.ok(ledger.report(from, to, by));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,21 +1,75 @@
 package com.ramsbaby.preply.api;
 
-import com.ramsbaby.preply.component.DailySummaryJob;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import com.ramsbaby.preply.component.RunProfiler;
+import com.ramsbaby.preply.component.SummaryRunService;
+import com.ramsbaby.preply.dto.RunProfile;
+import com.ramsbaby.preply.dto.RunStatus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/run")
 @RequiredArgsConstructor
 public class RunController {
-    private final DailySummaryJob job;
+    // Cloud Run 요청 제한 시간(deploy --timeout 900s)보다 짧게
+    private static final Duration WAIT_LIMIT = Duration.ofMinutes(14);
+
+    private final SummaryRunService runs;
+    private final RunProfiler profiler;
+
+    // 요약 실행을 걸고 바로 202 + 실행 ID 반환 (같은 날짜 실행이 진행 중이면 그 실행)
+    // wait=true 면 실행과 메일 발송이 끝날 때까지 기다렸다가 200 (제한 시간을 넘기면 그 시점 상태로 202)
+    // date=yyyy-MM-dd 면 지난 날짜 요약 (그날 저장된 환율 사용). 미래 또는 단가 인덱스 기간 밖이면 400
+    @RequestMapping(method = { RequestMethod.GET, RequestMethod.POST })
+    public ResponseEntity<RunStatus> run(@RequestParam(defaultValue = "false") boolean wait,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        RunStatus status;
+        try {
+            status = wait ? runs.submitAndWait(date, WAIT_LIMIT) : runs.submit(date);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (wait && status.finishedAt() != null)
+            return ResponseEntity.ok(status);
+        var location = ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{id}")
+                .buildAndExpand(status.id()).toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RunStatus> status(@PathVariable String id) {
+        return ResponseEntity.of(runs.find(id));
+    }
+
+    // 실행 1건의 JFR 녹화 요약 (단계 타임라인, 단계별 할당량, 메일 파싱/GC 집계)
+    @GetMapping("/{id}/profile")
+    public ResponseEntity<RunProfile> profile(@PathVariable String id) {
+        return ResponseEntity.of(profiler.report(id));
+    }
 
-    @GetMapping
-    public ResponseEntity<String> run() {
-        job.generateAndSend();
-        return ResponseEntity.ok("OK");
+    // 원본 JFR 파일 (JDK Mission Control 또는 `jfr print` 로 열기)
+    @GetMapping("/{id}/profile.jfr")
+    public ResponseEntity<Resource> recording(@PathVariable String id) {
+        return profiler.file(id)
+                .<ResponseEntity<Resource>>map(f -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + f.getFileName() + "\"")
+                        .body(new FileSystemResource(f)))
+                .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+}
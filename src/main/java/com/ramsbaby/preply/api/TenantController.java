@@ -0,0 +1,63 @@
+package com.ramsbaby.preply.api;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.ramsbaby.preply.component.TenantRegistry;
+import com.ramsbaby.preply.component.TenantRunService;
+import com.ramsbaby.preply.dto.LedgerReport;
+import com.ramsbaby.preply.dto.RunStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/tenants")
+@Profile("!replay")
+@RequiredArgsConstructor
+public class TenantController {
+    private final TenantRunService runs;
+    private final TenantRegistry tenants;
+
+    // 테넌트별 마지막 실행 상태 (단계별 소요 시간 포함)
+    @GetMapping
+    public Map<String, RunStatus> statuses() {
+        return runs.statuses();
+    }
+
+    // 전체 테넌트 실행을 걸고 바로 202 (진행 중인 테넌트는 그 실행)
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, RunStatus>> runAll() {
+        return ResponseEntity.accepted().body(runs.submitAll());
+    }
+
+    @PostMapping("/{id}/run")
+    public ResponseEntity<RunStatus> run(@PathVariable String id) {
+        return runs.submit(id)
+                .map(s -> ResponseEntity.accepted().body(s))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RunStatus> status(@PathVariable String id) {
+        return ResponseEntity.of(runs.status(id));
+    }
+
+    // 테넌트별 수입 리포트 (/ledger 와 같은 파라미터)
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<LedgerReport> ledger(@PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String by) {
+        return tenants.find(id)
+                .map(t -> LedgerController.report(t.ledger(), from, to, by))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
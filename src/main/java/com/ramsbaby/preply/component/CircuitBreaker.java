@@ -0,0 +1,60 @@
+package com.ramsbaby.preply.component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 제공자별 서킷 브레이커.
+ * - CLOSED: 연속 실패가 failureThreshold 에 닿으면 OPEN.
+ * - OPEN: openDuration 동안 호출하지 않는다. 지나면 시험 호출 1건만 허용(HALF_OPEN).
+ * - HALF_OPEN: 시험 호출이 성공하면 CLOSED, 실패하면 다시 OPEN.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private Instant openedAt = Instant.EPOCH;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+    }
+
+    // 지금 호출해도 되는지. OPEN 이 끝났으면 시험 호출 1건을 내주고 HALF_OPEN 으로 바꾼다.
+    synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (Instant.now().isBefore(openedAt.plus(openDuration)))
+                    yield false;
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = Instant.now();
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
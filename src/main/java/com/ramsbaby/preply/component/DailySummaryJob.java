@@ -1,42 +1,77 @@
 package com.ramsbaby.preply.component;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
 import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.LedgerEntry;
 import com.ramsbaby.preply.dto.LessonEvent;
+import com.ramsbaby.preply.dto.MailboxSnapshot;
 import com.ramsbaby.preply.dto.Money;
+import com.ramsbaby.preply.dto.RateEntry;
+import com.ramsbaby.preply.dto.SummaryMessage;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class DailySummaryJob {
 
     private final AppProps props;
-    private final PreplyRateCacheLoader rateLoader;
-    private final GcalReader gcal;
-    private final JavaMailSender mailSender;
-    private final FxRateService fx;
+    private final MailboxSource rateLoader;
+    private final LessonCalendar gcal;
+    private final List<DeliveryChannel> channels;
+    private final FxRates fx;
+    private final EarningsLedger ledger;
+    private final Clock clock;
+    private final MeterRegistry meters;
 
-    private static record Row(String student, Money money) {
+    static record Row(String student, Money money) {
     }
 
     private static record MatchResult(List<Row> rows, List<String> unknown) {
     }
 
-    private static String fmtAmount(BigDecimal v, String currency) {
+    // 단계별 소요 시간 수신 (RunController 의 /run/{id} 상태 조회용)
+    @FunctionalInterface
+    public interface StageListener {
+        StageListener NONE = (stage, millis) -> {
+        };
+
+        void onStage(String stage, long millis);
+    }
+
+    // 발송한 요약의 개요
+    // failedChannels: 발송에 실패한 채널 (일부 채널만 실패하면 실행은 성공으로 본다)
+    public record Result(LocalDate date, String subject, int lessons, int unmatched, BigDecimal krwTotal,
+            List<String> failedChannels) {
+        // 실행 상태(/run/{id}, /tenants)에 보여줄 한 줄 요약
+        public String describe() {
+            return subject + " / 레슨 " + lessons + "건, 단가 미매칭 " + unmatched + "건, 원화 합계 "
+                    + FxRateService.formatKrw(krwTotal)
+                    + (failedChannels.isEmpty() ? "" : ", 발송 실패 채널 " + failedChannels);
+        }
+    }
+
+    static String fmtAmount(BigDecimal v, String currency) {
         if (v == null)
             return "-";
         java.math.BigDecimal n = (v.compareTo(BigDecimal.ZERO) == 0)
@@ -58,23 +93,153 @@ public class DailySummaryJob {
     }
 
     // 수동 호출도 가능하게 분리
-    public void generateAndSend() {
-        Map<String, Money> rateByStudent = rateLoader.loadRates();
-        List<LessonEvent> events = gcal.loadTodayPreplyEvents();
+    public Result generateAndSend() {
+        return generateAndSend(StageListener.NONE);
+    }
+
+    // 메일함/캘린더/환율은 매칭 전까지 서로 의존하지 않으므로 가상 스레드로 동시에 실행.
+    // 환율은 통화만 알면 되므로 캘린더를 기다리지 않고 메일 단가의 통화로 먼저 조회한다.
+    // 어느 단계든 실패하거나 app.pipeline.stageTimeout 을 넘기면 나머지를 취소하고 그 오류로 실패한다.
+    public Result generateAndSend(StageListener listener) {
+        return generateAndSend(today(), listener);
+    }
+
+    // 요약 기준일(설정 시간대)의 오늘
+    public LocalDate today() {
+        return LocalDate.now(clock.withZone(ZoneId.of(props.gcal().timeZone())));
+    }
+
+    // date 기준 요약 (지난 날짜면 그날 레슨/보상과 그날 저장된 환율로 다시 만든다)
+    public Result generateAndSend(LocalDate today, StageListener listener) {
+        StageListener stages = timed(listener);
+        var tz = ZoneId.of(props.gcal().timeZone());
 
-        MatchResult match = matchEventsWithRates(events, rateByStudent);
+        MailboxSnapshot mailbox;
+        List<LessonEvent> events;
+        Map<String, FxLookup> fxLookups = new LinkedHashMap<>();
+        // 메일함 자원(IMAP 연결 슬롯) 대기는 단계 제한 시간에 넣지 않는다
+        MailboxSource.Permit permit = rateLoader.acquire();
+        boolean released = false;
+        try (StageScope scope = new StageScope(stages, props.pipeline().stageTimeout())) {
+            var mailboxStage = scope.fork("mailbox", () -> rateLoader.loadSnapshot(today));
+            var calendarStage = scope.fork("calendar", () -> gcal.loadPreplyEvents(today));
+            mailbox = mailboxStage.join();
+            // 메일함 단계가 끝났으니 캘린더/환율을 기다리지 않고 슬롯을 돌려준다
+            permit.close();
+            released = true;
+            Map<String, StageScope.Stage<FxLookup>> fxStages = new LinkedHashMap<>();
+            for (String cur : currenciesOf(mailbox)) {
+                if (!"KRW".equals(cur))
+                    fxStages.put(cur, scope.fork("fx:" + cur, () -> lookupFx(cur, today)));
+            }
+            events = calendarStage.join();
+            fxStages.forEach((cur, stage) -> fxLookups.put(cur, stage.join()));
+        } finally {
+            // 실패 경로: scope 가 닫혀 메일함 단계가 멈춘 뒤에 돌려준다
+            if (!released)
+                permit.close();
+        }
+
+        long t0 = System.nanoTime();
+        PreplyEvents.SummaryStage event = PreplyEvents.beginStage("match");
+        MatchResult match = matchEventsWithRates(events, mailbox.rateByStudent());
         List<Row> rows = new ArrayList<>(match.rows());
-        addTodayCancellationCompensations(rows);
+        addTodayCancellationCompensations(rows, mailbox.todayCompensations());
 
         Map<String, BigDecimal> totals = computeTotalsByCurrency(rows);
-        var tz = ZoneId.of(props.gcal().timeZone());
-        Set<String> currencies = collectCurrencies(totals);
-        BigDecimal krwTotal = computeKrwTotal(totals);
+        Map<String, FxRateService.Snapshot> fxRates = resolveFxRates(collectCurrencies(totals), fxLookups);
+        BigDecimal krwTotal = computeKrwTotal(totals, fxRates);
+        String body = buildEmailBody(totals, krwTotal, fxRates, rows, match.unknown(), tz);
+        event.commit();
+        t0 = lap(stages, "match", t0);
+
+        event = PreplyEvents.beginStage("ledger");
+        ledger.record(ledgerEntry(today, match.rows().size(), rows, fxRates, krwTotal));
+        event.commit();
+        t0 = lap(stages, "ledger", t0);
+
+        event = PreplyEvents.beginStage("send");
+        String subject = "[Preply] 오늘 레슨 요약 (" + today + ")";
+        var message = new SummaryMessage(today, props.mail().user(), props.mail().smtp().from(),
+                List.of(resolveRecipients()), subject, body);
+        List<String> failed = deliver(stages, message);
+        event.commit();
+        lap(stages, "send", t0);
+        return new Result(today, subject, rows.size(), match.unknown().size(), krwTotal, failed);
+    }
+
+    // 켜진 채널 모두에 동시에 보내고 실패한 채널 이름을 돌려준다. 모든 채널이 실패하면 실행 실패.
+    // 메일 채널은 아웃박스 기록까지만이라 빠르고, 느린 채널도 자기 제한 시간/재시도 안에서 끝난다.
+    private List<String> deliver(StageListener stages, SummaryMessage message) {
+        List<DeliveryChannel> active = channels.stream().filter(DeliveryChannel::enabled).toList();
+        List<String> failed = Flux.fromIterable(active)
+                .flatMap(ch -> {
+                    long t0 = System.nanoTime();
+                    return ch.deliver(message)
+                            .then(Mono.<String>empty())
+                            .onErrorResume(e -> {
+                                log.warn("{} 채널 발송 실패: {}", ch.name(), e.toString());
+                                return Mono.just(ch.name());
+                            })
+                            .doFinally(s -> stages.onStage("send:" + ch.name(),
+                                    (System.nanoTime() - t0) / 1_000_000));
+                })
+                .collectList()
+                .block(props.pipeline().stageTimeout());
+        if (!active.isEmpty() && failed.size() == active.size())
+            throw new IllegalStateException("요약 발송 실패 (모든 채널): " + failed);
+        return failed;
+    }
+
+    // 앞의 matched 건은 매칭된 레슨, 나머지는 취소 보상 (addTodayCancellationCompensations 가 뒤에 붙인다)
+    private LedgerEntry ledgerEntry(LocalDate date, int matched, List<Row> rows,
+            Map<String, FxRateService.Snapshot> fxRates, BigDecimal krwTotal) {
+        List<LedgerEntry.Line> lines = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row r = rows.get(i);
+            lines.add(new LedgerEntry.Line(i < matched ? LedgerEntry.LESSON : LedgerEntry.COMPENSATION,
+                    r.student(), r.money()));
+        }
+        List<LedgerEntry.Fx> fxLines = fxRates.entrySet().stream()
+                .map(e -> new LedgerEntry.Fx(e.getKey(), e.getValue().krwPer(), e.getValue().asOf(),
+                        e.getValue().source()))
+                .toList();
+        return new LedgerEntry(date, Instant.now(clock), lines, fxLines, krwTotal);
+    }
 
-        String body = buildEmailBody(totals, krwTotal, currencies, rows, match.unknown(), tz);
-        String subject = "[Preply] 오늘 레슨 요약 (" + LocalDate.now(tz) + ")";
-        String[] recipients = resolveRecipients();
-        sendEmail(subject, body, recipients);
+    private static long lap(StageListener stages, String stage, long since) {
+        long now = System.nanoTime();
+        stages.onStage(stage, (now - since) / 1_000_000);
+        return now;
+    }
+
+    // 단계 소요 시간을 summary.stage 타이머에도 기록. 통화별 fx:<통화> 단계는 태그 수가 늘지 않게 fx 로 묶는다.
+    private StageListener timed(StageListener listener) {
+        return (stage, millis) -> {
+            String tag = stage.startsWith("fx:") ? "fx" : stage;
+            meters.timer("summary.stage", "stage", tag).record(millis, TimeUnit.MILLISECONDS);
+            listener.onStage(stage, millis);
+        };
+    }
+
+    // 단가/보상 메일에 나온 통화 전체 (실제 합계에 쓰이는 통화의 상위 집합)
+    private static Set<String> currenciesOf(MailboxSnapshot mailbox) {
+        Set<String> currencies = new LinkedHashSet<>();
+        mailbox.rateByStudent().values().forEach(m -> currencies.add(m.currency().toUpperCase()));
+        mailbox.todayCompensations().forEach(re -> currencies.add(re.money().currency().toUpperCase()));
+        return currencies;
+    }
+
+    // 미리 조회한 통화 중 오늘 합계에 안 쓰이는 통화도 있으므로, 조회 실패는 실제로 필요할 때만 오류로 올린다
+    private record FxLookup(FxRateService.Snapshot snapshot, RuntimeException error) {
+    }
+
+    private FxLookup lookupFx(String currency, LocalDate date) {
+        try {
+            return new FxLookup(fx.snapshotOn(currency, date), null);
+        } catch (RuntimeException e) {
+            return new FxLookup(null, e);
+        }
     }
 
     private MatchResult matchEventsWithRates(List<LessonEvent> events, Map<String, Money> rateByStudent) {
@@ -90,21 +255,17 @@ public class DailySummaryJob {
         return new MatchResult(rows, unknown);
     }
 
-    private void addTodayCancellationCompensations(List<Row> rows) {
-        try {
-            var compList = rateLoader.loadTodayCancellationCompensations();
-            java.util.Set<String> existing = rows.stream().map(Row::student).collect(Collectors.toSet());
-            for (var re : compList) {
-                if (!existing.contains(re.studentName())) {
-                    rows.add(new Row(re.studentName(), re.money()));
-                    existing.add(re.studentName());
-                }
+    private void addTodayCancellationCompensations(List<Row> rows, List<RateEntry> compList) {
+        java.util.Set<String> existing = rows.stream().map(Row::student).collect(Collectors.toSet());
+        for (var re : compList) {
+            if (!existing.contains(re.studentName())) {
+                rows.add(new Row(re.studentName(), re.money()));
+                existing.add(re.studentName());
             }
-        } catch (Exception ignore) {
         }
     }
 
-    private Map<String, BigDecimal> computeTotalsByCurrency(List<Row> rows) {
+    static Map<String, BigDecimal> computeTotalsByCurrency(List<Row> rows) {
         return rows.stream().collect(Collectors.groupingBy(
                 r -> r.money().currency(),
                 Collectors.mapping(r -> r.money().amount(), Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))));
@@ -116,9 +277,27 @@ public class DailySummaryJob {
         return currencies;
     }
 
-    private BigDecimal computeKrwTotal(Map<String, BigDecimal> totals) {
+    // 통화별 적용 환율을 한 번씩만 조회 (합계와 본문 표기가 같은 환율을 쓰도록). 레슨 날짜 기준.
+    private Map<String, FxRateService.Snapshot> resolveFxRates(Set<String> currencies,
+            Map<String, FxLookup> fxLookups) {
+        Map<String, FxRateService.Snapshot> out = new LinkedHashMap<>();
+        for (String cur : currencies) {
+            if ("KRW".equals(cur))
+                continue;
+            FxLookup lookup = fxLookups.get(cur);
+            if (lookup.error() != null)
+                throw lookup.error();
+            out.put(cur, lookup.snapshot());
+        }
+        return out;
+    }
+
+    private BigDecimal computeKrwTotal(Map<String, BigDecimal> totals, Map<String, FxRateService.Snapshot> fxRates) {
         return totals.entrySet().stream()
-                .map(e -> e.getValue().multiply(fx.krwPer(e.getKey())))
+                .map(e -> {
+                    String cur = e.getKey().toUpperCase();
+                    return "KRW".equals(cur) ? e.getValue() : e.getValue().multiply(fxRates.get(cur).krwPer());
+                })
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
                 .setScale(0, java.math.RoundingMode.HALF_UP);
     }
@@ -126,7 +305,7 @@ public class DailySummaryJob {
     private String buildEmailBody(
             Map<String, BigDecimal> totals,
             BigDecimal krwTotal,
-            Set<String> currencies,
+            Map<String, FxRateService.Snapshot> fxRates,
             List<Row> rows,
             List<String> unknown,
             ZoneId tz) {
@@ -144,14 +323,14 @@ public class DailySummaryJob {
 
         sb.append("\n[적용 환율]\n");
         List<String> rateLines = new ArrayList<>();
-        for (String cur : currencies) {
-            if ("KRW".equalsIgnoreCase(cur))
-                continue;
-            var snap = fx.snapshot(cur);
+        for (var fxRate : fxRates.entrySet()) {
+            String cur = fxRate.getKey();
+            var snap = fxRate.getValue();
             String asOfKst = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(tz)
                     .format(snap.asOf());
             rateLines.add(
-                    String.format("- 1 %s = %s KRW (as of %s %s)", cur, fmtAmount(snap.krwPer(), "KRW"), asOfKst, tz));
+                    String.format("- 1 %s = %s KRW (as of %s %s%s)", cur, fmtAmount(snap.krwPer(), "KRW"), asOfKst, tz,
+                            snap.stale() ? ", 갱신 지연" : ""));
         }
         if (rateLines.isEmpty())
             sb.append("- 환산 없음(KRW only)\n");
@@ -180,18 +359,4 @@ public class DailySummaryJob {
         toList.add(props.mail().smtp().from());
         return toList.stream().filter(s -> s != null && !s.isBlank()).distinct().toArray(String[]::new);
     }
-
-    private void sendEmail(String subject, String body, String[] recipients) {
-        var msg = mailSender.createMimeMessage();
-        try {
-            var helper = new MimeMessageHelper(msg, false, "UTF-8");
-            helper.setFrom(props.mail().smtp().from());
-            helper.setTo(recipients);
-            helper.setSubject(subject);
-            helper.setText(body, false);
-            mailSender.send(msg);
-        } catch (Exception e) {
-            throw new IllegalStateException("요약 메일 발송 실패", e);
-        }
-    }
 }
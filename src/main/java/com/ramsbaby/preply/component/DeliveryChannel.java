@@ -0,0 +1,22 @@
+package com.ramsbaby.preply.component;
+
+import com.ramsbaby.preply.dto.SummaryMessage;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 요약 발송 채널. 운영은 메일({@link EmailChannel}) + 선택적으로 Slack({@link SlackWebhookChannel}).
+ * 모든 채널은 본문이 만들어진 뒤 동시에 발송되므로, 채널마다 자기 제한 시간/재시도를 스스로 건다.
+ */
+public interface DeliveryChannel {
+
+    // 단계 이름(send:<name>)과 로그에 쓰는 짧은 이름
+    String name();
+
+    // 설정이 없어 꺼진 채널은 발송 대상에서 빠진다
+    default boolean enabled() {
+        return true;
+    }
+
+    Mono<Void> deliver(SummaryMessage message);
+}
@@ -0,0 +1,295 @@
+package com.ramsbaby.preply.component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.LedgerEntry;
+import com.ramsbaby.preply.dto.LedgerReport;
+import com.ramsbaby.preply.dto.Money;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요약 실행마다 그날의 레슨/취소 보상/적용 환율을 append-only 원장(ledger.bin, 형식은 {@link RecordFile})에 남긴다.
+ * 본문 = 버전 byte, epochDay int, recordedAt long, 줄 수 short, (종류 byte, 학생 UTF, 통화 UTF, 금액) × 줄 수,
+ * 환율 수 short, (통화 UTF, krwPer, asOf long, source UTF) × 환율 수, 원화 합계. 금액/환율은 unscaled long + scale byte.
+ * - 같은 날짜가 여러 번 있으면 나중 레코드가 이긴다(재실행).
+ * - 메모리에는 날짜 → (파일 위치, 하루 합계)와 주/월 롤업만 두고, 기록할 때 바뀐 날짜의 이전 합계를 빼고 새 합계를 더한다.
+ *   기간 리포트는 롤업에서 바로 답하고(구간 경계에 걸친 주/월만 일 합계로 다시 더함), 외부 시스템은 건드리지 않는다.
+ * - 하루 상세는 파일 위치로 그 레코드 하나만 읽는다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EarningsLedger {
+
+    private static final String FILE_NAME = "ledger.bin";
+    private static final int MAX_RECORD = 1 << 20;
+    private static final byte FORMAT = 1;
+    private static final long NOT_STORED = -1;
+
+    private final AppProps props;
+
+    private boolean loaded;
+    private final TreeMap<LocalDate, Day> days = new TreeMap<>();
+    private final TreeMap<LocalDate, Totals> weeks = new TreeMap<>();
+    private final TreeMap<LocalDate, Totals> months = new TreeMap<>();
+
+    private record Day(long offset, Totals totals) {
+    }
+
+    // 리포트 단위: 구간 시작일과 마지막 날
+    private enum Granularity {
+        DAY, WEEK, MONTH;
+
+        LocalDate start(LocalDate d) {
+            return switch (this) {
+                case DAY -> d;
+                case WEEK -> d.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> d.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate end(LocalDate start) {
+            return switch (this) {
+                case DAY -> start;
+                case WEEK -> start.plusDays(6);
+                case MONTH -> start.with(TemporalAdjusters.lastDayOfMonth());
+            };
+        }
+    }
+
+    // 원장에 기록하고 롤업에 반영 (파일 기록이 실패해도 메모리 롤업은 갱신)
+    public synchronized void record(LedgerEntry entry) {
+        load();
+        long offset = NOT_STORED;
+        try {
+            offset = RecordFile.append(path(), encode(entry));
+        } catch (IOException e) {
+            // 같은 날짜를 다시 실행하면 다시 기록됨
+            log.warn("수입 원장 기록 실패 ({}): {}", entry.date(), e.toString());
+        }
+        index(entry, offset);
+    }
+
+    // 하루 상세 (그날 마지막 기록)
+    public synchronized Optional<LedgerEntry> entry(LocalDate date) {
+        load();
+        Day day = days.get(date);
+        if (day == null || day.offset() == NOT_STORED)
+            return Optional.empty();
+        try {
+            return Optional.of(decode(RecordFile.read(path(), day.offset())));
+        } catch (IOException e) {
+            throw new IllegalStateException("수입 원장 읽기 실패: " + date, e);
+        }
+    }
+
+    /**
+     * [from, to] 기간을 by(day|week|month) 단위로 묶은 리포트. from/to 가 null 이면 기록의 처음/끝까지.
+     */
+    public synchronized LedgerReport report(LocalDate from, LocalDate to, String by) {
+        Granularity g = Granularity.valueOf(by.toUpperCase(Locale.ROOT));
+        load();
+        if (days.isEmpty())
+            return new LedgerReport(from, to, g.name().toLowerCase(Locale.ROOT), List.of(), Totals.EMPTY.bucket(from, to));
+        LocalDate lo = from != null ? from : days.firstKey();
+        LocalDate hi = to != null ? to : days.lastKey();
+        if (lo.isAfter(hi))
+            throw new IllegalArgumentException("from 이 to 보다 늦습니다: " + lo + " > " + hi);
+
+        NavigableMap<LocalDate, ?> starts = switch (g) {
+            case DAY -> days.subMap(lo, true, hi, true);
+            case WEEK -> weeks.subMap(g.start(lo), true, hi, true);
+            case MONTH -> months.subMap(g.start(lo), true, hi, true);
+        };
+        List<LedgerReport.Bucket> buckets = new ArrayList<>(starts.size());
+        Totals total = new Totals();
+        for (LocalDate start : starts.keySet()) {
+            LocalDate end = g.end(start);
+            // 구간이 기간 안에 다 들어가면 롤업 그대로, 경계에 걸치면 걸친 날만 다시 더한다
+            Totals t = !start.isBefore(lo) && !end.isAfter(hi) ? rollup(g, start) : sumDays(max(start, lo), min(end, hi));
+            if (t.days == 0)
+                continue;
+            buckets.add(t.bucket(start, end));
+            total.add(t, 1);
+        }
+        return new LedgerReport(lo, hi, g.name().toLowerCase(Locale.ROOT), buckets, total.bucket(lo, hi));
+    }
+
+    private Totals rollup(Granularity g, LocalDate start) {
+        return switch (g) {
+            case DAY -> days.get(start).totals();
+            case WEEK -> weeks.get(start);
+            case MONTH -> months.get(start);
+        };
+    }
+
+    private Totals sumDays(LocalDate from, LocalDate to) {
+        Totals t = new Totals();
+        days.subMap(from, true, to, true).values().forEach(d -> t.add(d.totals(), 1));
+        return t;
+    }
+
+    private void load() {
+        if (loaded)
+            return;
+        loaded = true;
+        int count;
+        try {
+            count = RecordFile.readAll(path(), MAX_RECORD, "수입 원장", (offset, body) -> index(decode(body), offset));
+        } catch (IOException e) {
+            log.warn("수입 원장 읽기 실패: {}", e.toString());
+            return;
+        }
+        if (count > 0)
+            log.info("수입 원장 {}건 로드 ({}일치)", count, days.size());
+    }
+
+    // 같은 날짜의 이전 합계를 빼고 새 합계를 더한다
+    private void index(LedgerEntry entry, long offset) {
+        LocalDate date = entry.date();
+        Totals totals = Totals.of(entry);
+        Day old = days.put(date, new Day(offset, totals));
+        if (old != null)
+            roll(date, old.totals(), -1);
+        roll(date, totals, 1);
+    }
+
+    private void roll(LocalDate date, Totals t, int sign) {
+        for (var e : List.of(Map.entry(Granularity.WEEK, weeks), Map.entry(Granularity.MONTH, months))) {
+            LocalDate start = e.getKey().start(date);
+            Totals bucket = e.getValue().computeIfAbsent(start, k -> new Totals());
+            bucket.add(t, sign);
+            if (bucket.days == 0)
+                e.getValue().remove(start);
+        }
+    }
+
+    // 하루/주/월 합계 (원 통화별 + 원화 환산)
+    private static final class Totals {
+        static final Totals EMPTY = new Totals();
+
+        private int days;
+        private int lessons;
+        private int compensations;
+        private final Map<String, BigDecimal> byCurrency = new TreeMap<>();
+        private BigDecimal krw = BigDecimal.ZERO;
+
+        static Totals of(LedgerEntry entry) {
+            Totals t = new Totals();
+            t.days = 1;
+            for (LedgerEntry.Line line : entry.lines()) {
+                if (LedgerEntry.COMPENSATION.equals(line.kind()))
+                    t.compensations++;
+                else
+                    t.lessons++;
+                t.byCurrency.merge(line.money().currency().toUpperCase(Locale.ROOT), line.money().amount(),
+                        BigDecimal::add);
+            }
+            t.krw = entry.krwTotal();
+            return t;
+        }
+
+        void add(Totals o, int sign) {
+            days += sign * o.days;
+            lessons += sign * o.lessons;
+            compensations += sign * o.compensations;
+            o.byCurrency.forEach((cur, amt) -> {
+                BigDecimal v = byCurrency.getOrDefault(cur, BigDecimal.ZERO).add(sign > 0 ? amt : amt.negate());
+                if (v.signum() == 0)
+                    byCurrency.remove(cur);
+                else
+                    byCurrency.put(cur, v);
+            });
+            krw = krw.add(sign > 0 ? o.krw : o.krw.negate());
+        }
+
+        LedgerReport.Bucket bucket(LocalDate start, LocalDate end) {
+            return new LedgerReport.Bucket(start, end, days, lessons, compensations, Map.copyOf(byCurrency), krw);
+        }
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static byte[] encode(LedgerEntry e) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64 + e.lines().size() * 32);
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeByte(FORMAT);
+            out.writeInt((int) e.date().toEpochDay());
+            out.writeLong(e.recordedAt().toEpochMilli());
+            out.writeShort(e.lines().size());
+            for (LedgerEntry.Line line : e.lines()) {
+                out.writeByte(LedgerEntry.COMPENSATION.equals(line.kind()) ? 1 : 0);
+                out.writeUTF(line.student());
+                out.writeUTF(line.money().currency());
+                RecordFile.writeDecimal(out, line.money().amount());
+            }
+            out.writeShort(e.fx().size());
+            for (LedgerEntry.Fx fx : e.fx()) {
+                out.writeUTF(fx.currency());
+                RecordFile.writeDecimal(out, fx.krwPer());
+                out.writeLong(fx.asOf().toEpochMilli());
+                out.writeUTF(fx.source() == null ? "" : fx.source());
+            }
+            RecordFile.writeDecimal(out, e.krwTotal());
+        }
+        return bos.toByteArray();
+    }
+
+    private static LedgerEntry decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        int format = in.readByte();
+        if (format != FORMAT)
+            throw new IOException("알 수 없는 수입 원장 형식: " + format);
+        LocalDate date = LocalDate.ofEpochDay(in.readInt());
+        Instant recordedAt = Instant.ofEpochMilli(in.readLong());
+        int n = in.readUnsignedShort();
+        List<LedgerEntry.Line> lines = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String kind = in.readByte() == 1 ? LedgerEntry.COMPENSATION : LedgerEntry.LESSON;
+            String student = in.readUTF();
+            String currency = in.readUTF();
+            lines.add(new LedgerEntry.Line(kind, student, new Money(RecordFile.readDecimal(in), currency)));
+        }
+        int m = in.readUnsignedShort();
+        List<LedgerEntry.Fx> fx = new ArrayList<>(m);
+        for (int i = 0; i < m; i++) {
+            String currency = in.readUTF();
+            BigDecimal krwPer = RecordFile.readDecimal(in);
+            Instant asOf = Instant.ofEpochMilli(in.readLong());
+            fx.add(new LedgerEntry.Fx(currency, krwPer, asOf, in.readUTF()));
+        }
+        return new LedgerEntry(date, recordedAt, lines, fx, RecordFile.readDecimal(in));
+    }
+
+    private Path path() {
+        return Path.of(props.storage().dir()).toAbsolutePath().resolve(FILE_NAME);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ramsbaby.preply.component;
+
+import org.springframework.stereotype.Component;
+
+import com.ramsbaby.preply.dto.SummaryMessage;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 메일 채널. 아웃박스({@link MailOutbox})에 기록하면 끝나고, SMTP 발송/재시도는 아웃박스 발송 스레드가 맡는다.
+ * 기록은 파일 I/O(DSYNC)라 boundedElastic 에서 실행한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailChannel implements DeliveryChannel {
+
+    private final MailOutbox outbox;
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public Mono<Void> deliver(SummaryMessage m) {
+        return Mono.fromRunnable(() -> outbox.enqueue(m.account(), m.from(), m.to().toArray(String[]::new),
+                m.subject(), m.body(), m.date()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
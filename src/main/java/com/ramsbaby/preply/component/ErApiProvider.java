@@ -0,0 +1,39 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// 2순위: open.er-api.com (예: https://open.er-api.com/v6/latest/USD)
+@Component
+@Profile("!replay")
+@Order(2)
+public class ErApiProvider extends HttpFxProvider {
+
+    @Override
+    public String name() {
+        return "open.er-api.com";
+    }
+
+    @Override
+    protected URI uri(String base) {
+        return URI.create("https://open.er-api.com/v6/latest/" + base);
+    }
+
+    @Override
+    protected Map<String, BigDecimal> rates(String body) throws IOException {
+        ErApiResp dto = om.readValue(body, ErApiResp.class);
+        return "success".equalsIgnoreCase(dto.result()) ? dto.rates() : null;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ErApiResp(String result, Map<String, BigDecimal> rates) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// 1순위: exchangerate.host
+@Component
+@Profile("!replay")
+@Order(1)
+public class ExchangerateHostProvider extends HttpFxProvider {
+
+    @Override
+    public String name() {
+        return "exchangerate.host";
+    }
+
+    @Override
+    protected URI uri(String base) {
+        return URI.create("https://api.exchangerate.host/latest?base=" + base);
+    }
+
+    @Override
+    protected Map<String, BigDecimal> rates(String body) throws IOException {
+        return om.readValue(body, RateResp.class).rates();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record RateResp(Map<String, BigDecimal> rates) {
+    }
+}
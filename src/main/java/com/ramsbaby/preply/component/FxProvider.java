@@ -0,0 +1,17 @@
+package com.ramsbaby.preply.component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 환율 제공자. base 1 단위당 각 통화 환율표(KRW 포함)를 비동기로 가져온다.
+ * 실패(HTTP 오류, 타임아웃, KRW 없음)는 예외로 완료한다.
+ * 등록 순서(@Order)가 헤징 순서다: 앞 제공자가 hedgeDelay 안에 답하지 못하면 다음 제공자를 함께 호출한다.
+ */
+public interface FxProvider {
+
+    String name();
+
+    CompletableFuture<Map<String, BigDecimal>> fetch(String base);
+}
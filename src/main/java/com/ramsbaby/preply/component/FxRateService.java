@@ -1,33 +1,96 @@
 package com.ramsbaby.preply.component;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.FxDailySnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * 환율은 stale-while-revalidate 로 제공한다.
+ * - 백그라운드 스케줄러가 refreshInterval 마다 환율표를 미리 갱신한다(기동 직후 1회 포함).
+ * - 호출자는 항상 마지막 성공 환율표를 즉시 받는다. refreshInterval 이 지났으면 비동기 갱신만 걸어 둔다.
+ * - 환율표가 없거나(콜드 스타트) maxStaleness 를 넘긴 경우에만 요청 경로에서 동기 fetch 한다.
+ * fetch 는 제공자들을 헤징해서 부른다: 앞 제공자가 hedgeDelay 안에 답하지 않거나 실패하면 다음 제공자를
+ * 함께 호출하고, 먼저 온 유효한 응답을 쓴다. 계속 실패하는 제공자는 서킷 브레이커로 건너뛴다.
+ * 날짜별 첫 성공 환율표는 {@link FxSnapshotStore}에 남겨 과거 날짜 요약과 콜드 스타트에 쓴다.
+ */
 @Service
-public class FxRateService {
+@Profile("!replay")
+@Slf4j
+public class FxRateService implements FxRates {
 
-    private static final Duration TTL = Duration.ofMinutes(30);
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(5))
-            .build();
-    private final ObjectMapper om = new ObjectMapper();
-    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    // 제공자 호출 1번으로 기준 통화 대비 전체 환율표를 받고, 나머지는 교차 환율로 계산
+    private static final String BASE = "USD";
+    private final ExecutorService revalidator = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("fx-revalidate").daemon().factory());
+    private final AppProps props;
+    private final List<FxProvider> providers;
+    private final Map<String, CircuitBreaker> breakers = new HashMap<>();
+    private final MeterRegistry meters;
+    private final FxSnapshotStore snapshots;
+    private final Clock clock;
+
+    // 마지막으로 성공한 환율표 (제공자 실패 시에도 계속 사용)
+    private volatile RateTable table;
+    // 진행 중인 갱신 (single-flight: 동시에 만료를 만난 호출자들은 같은 fetch 결과를 기다림)
+    private final AtomicReference<CompletableFuture<RateTable>> inFlight = new AtomicReference<>();
+
+    public FxRateService(AppProps props, List<FxProvider> providers, MeterRegistry meters, FxSnapshotStore snapshots,
+            Clock clock) {
+        this.props = props;
+        this.providers = List.copyOf(providers);
+        this.meters = meters;
+        this.snapshots = snapshots;
+        this.clock = clock;
+        // 콜드 스타트: 저장된 마지막 환율표로 시작 (오래됐으면 첫 요청에서 갱신을 시도하고, 실패해도 이 값으로 응답)
+        snapshots.latest().ifPresent(s -> table = new RateTable(s.base(), s.rates(), s.asOf(), s.source()));
+        for (FxProvider p : this.providers)
+            breakers.put(p.name(), new CircuitBreaker(props.fx().breakerFailureThreshold(),
+                    props.fx().breakerOpenDuration()));
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        breakers.forEach((name, b) ->
+                Gauge.builder("fx.provider.circuit.open", b, cb -> cb.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                        .description("서킷 브레이커가 열려 있으면 1")
+                        .tag("provider", name)
+                        .register(meters));
+        TimeGauge.builder("fx.table.age", this, TimeUnit.SECONDS,
+                s -> s.table == null ? Double.NaN : s.table.age().toSeconds())
+                .description("사용 중인 환율표의 경과 시간").register(meters);
+        Gauge.builder("fx.table.currencies", this, s -> s.table == null ? 0 : s.table.rates().size())
+                .description("사용 중인 환율표의 통화 수").register(meters);
+    }
 
     public static String formatKrw(BigDecimal krw) {
         var df = new java.text.DecimalFormat("#,##0원");
@@ -35,105 +98,223 @@ public class FxRateService {
         return df.format(krw.setScale(0, RoundingMode.HALF_UP));
     }
 
+    @Override
     public BigDecimal krwPer(String currency) {
         String cur = Objects.requireNonNull(currency, "currency").toUpperCase(Locale.ROOT);
         if ("KRW".equals(cur)) return BigDecimal.ONE;
+        return table().krwPer(cur);
+    }
 
-        // 1) 캐시 적중
-        Cached c = cache.get(cur);
-        if (c != null && c.isFresh()) return c.rate();
+    // 임의 통화쌍: 1 from = ? to (같은 환율표에서 교차 계산, 추가 호출 없음)
+    public BigDecimal rate(String from, String to) {
+        String f = Objects.requireNonNull(from, "from").toUpperCase(Locale.ROOT);
+        String t = Objects.requireNonNull(to, "to").toUpperCase(Locale.ROOT);
+        if (f.equals(t)) return BigDecimal.ONE;
+        return table().cross(f, t);
+    }
 
-        // 2) 페일오버 체인: provider1 → provider2
-        BigDecimal fetched = fetchFromExchangerateHost(cur);
-        String source = "exchangerate.host";
-        if (fetched == null) {
-            fetched = fetchFromErApi(cur);
-            source = "open.er-api.com";
-        }
-        if (fetched == null) {
-            // 마지막 성공값이라도 있으면 사용
-            if (c != null) return c.rate();
-            throw new IllegalStateException("환율 조회 실패: " + cur + "→KRW");
+    // 백그라운드 갱신: 만료 전에 미리 받아 두어 요청 경로가 제공자 지연을 기다리지 않게 함
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.fx.refreshInterval:PT20M}")
+    public void scheduledRefresh() {
+        try {
+            refresh(true);
+        } catch (RuntimeException e) {
+            log.warn("환율 백그라운드 갱신 실패: {}", e.toString());
         }
-        cache.put(cur, new Cached(fetched, Instant.now(), source));
-        return fetched;
     }
 
-    // === Provider 1: exchangerate.host ===
-    private BigDecimal fetchFromExchangerateHost(String currency) {
+    // 1) 마지막 성공값 즉시 반환 (만료면 비동기 갱신) 2) 없거나 최대 허용 지연 초과면 동기 갱신
+    private RateTable table() {
+        RateTable t = table;
+        if (t == null || t.age().compareTo(props.fx().maxStaleness()) > 0) return refresh(false);
+        if (t.age().compareTo(props.fx().refreshInterval()) > 0 && inFlight.get() == null)
+            revalidator.execute(this::scheduledRefresh);
+        return t;
+    }
+
+    private RateTable refresh(boolean force) {
+        CompletableFuture<RateTable> mine = new CompletableFuture<>();
+        CompletableFuture<RateTable> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) return await(running);
         try {
-            String url = "https://api.exchangerate.host/latest?base="
-                    + URLEncoder.encode(currency, StandardCharsets.UTF_8)
-                    + "&symbols=KRW";
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                    .header("Accept", "application/json")
-                    .header("User-Agent", "Preply-Summary/1.0")
-                    .timeout(Duration.ofSeconds(7))
-                    .GET().build();
-            HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
-            if (res.statusCode() != 200) {
-                debugHttp("exchangerate.host", res);
-                return null;
+            // 앞선 갱신이 막 끝났다면 다시 부르지 않음
+            RateTable t = table;
+            if (force || t == null || t.age().compareTo(props.fx().refreshInterval()) > 0) {
+                t = fetchTable();
+                table = t;
             }
-            RateResp dto = om.readValue(res.body(), RateResp.class);
-            return dto.rates() == null ? null : dto.rates().get("KRW");
-        } catch (Exception e) {
-            System.out.println("[FX] exchangerate.host error: " + e.getMessage());
-            return null;
+            mine.complete(t);
+            return t;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
         }
     }
 
-    // === Provider 2: open.er-api.com ===
-    private BigDecimal fetchFromErApi(String currency) {
+    private static RateTable await(CompletableFuture<RateTable> running) {
         try {
-            // 예: https://open.er-api.com/v6/latest/USD
-            String url = "https://open.er-api.com/v6/latest/" + URLEncoder.encode(currency, StandardCharsets.UTF_8);
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                    .header("Accept", "application/json")
-                    .header("User-Agent", "Preply-Summary/1.0")
-                    .timeout(Duration.ofSeconds(7))
-                    .GET().build();
-            HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
-            if (res.statusCode() != 200) {
-                debugHttp("open.er-api.com", res);
-                return null;
-            }
-            ErApiResp dto = om.readValue(res.body(), ErApiResp.class);
-            if (!"success".equalsIgnoreCase(dto.result())) return null;
-            return dto.rates() == null ? null : dto.rates().get("KRW");
-        } catch (Exception e) {
-            System.out.println("[FX] open.er-api.com error: " + e.getMessage());
-            return null;
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    // 헤징 fetch → 실패 시 마지막 성공값
+    private RateTable fetchTable() {
+        PreplyEvents.FxRefresh event = new PreplyEvents.FxRefresh();
+        event.begin();
+        Fetched fetched = new HedgedFetch().run();
+        event.success = fetched != null;
+        event.source = fetched == null ? null : fetched.source();
+        event.currencies = fetched == null ? 0 : fetched.rates().size();
+        event.commit();
+        if (fetched == null) {
+            // 마지막 성공값이라도 있으면 사용
+            RateTable last = table;
+            if (last != null) return last;
+            throw new IllegalStateException("환율 조회 실패: " + BASE + " 기준 환율표");
         }
+        RateTable t = new RateTable(BASE, fetched.rates(), Instant.now(), fetched.source());
+        LocalDate today = today();
+        if (!snapshots.has(today))
+            snapshots.append(new FxDailySnapshot(today, t.base(), t.rates(), t.asOf(), t.source()));
+        return t;
     }
 
-    private void debugHttp(String provider, HttpResponse<String> res) {
-        String body = res.body();
-        if (body != null && body.length() > 300) body = body.substring(0, 300) + "...";
-        System.out.println("[FX] " + provider + " HTTP " + res.statusCode() + " body=" + body);
+    private LocalDate today() {
+        return LocalDate.now(clock.withZone(ZoneId.of(props.gcal().timeZone())));
     }
 
+    private record Fetched(String source, Map<String, BigDecimal> rates) {
+    }
+
+    /**
+     * 제공자 i 는 (i-1 이 시작된 뒤 hedgeDelay 경과) 또는 (i-1 실패) 중 먼저 오는 시점에 한 번만 시작한다.
+     * 첫 유효 응답이 승자이고, 진 요청은 취소하지 않고 끝까지 받아 지연/성공 지표와 브레이커에 반영한다.
+     * 모든 제공자가 실패하거나 브레이커로 건너뛰면 null.
+     */
+    private final class HedgedFetch {
+        private final CompletableFuture<Fetched> winner = new CompletableFuture<>();
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+
+        Fetched run() {
+            trigger(0);
+            return winner.join();
+        }
+
+        private void trigger(int i) {
+            if (started.compareAndSet(i, i + 1))
+                start(i);
+        }
+
+        private void start(int i) {
+            if (winner.isDone())
+                return;
+            if (i >= providers.size()) {
+                finishIfIdle();
+                return;
+            }
+            FxProvider p = providers.get(i);
+            CircuitBreaker breaker = breakers.get(p.name());
+            if (!breaker.tryAcquire()) {
+                trigger(i + 1);
+                return;
+            }
+            running.incrementAndGet();
+            long t0 = System.nanoTime();
+            CompletableFuture.delayedExecutor(props.fx().hedgeDelay().toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> trigger(i + 1));
+            CompletableFuture<Map<String, BigDecimal>> call;
+            try {
+                call = p.fetch(BASE);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((rates, err) -> {
+                boolean ok = err == null;
+                if (ok)
+                    breaker.onSuccess();
+                else
+                    breaker.onFailure();
+                Timer.builder("fx.provider.latency")
+                        .tag("provider", p.name())
+                        .tag("outcome", ok ? "success" : "failure")
+                        .register(meters)
+                        .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+                if (ok) {
+                    // 승자를 먼저 확정한 뒤에 진행 수를 줄인다. 반대 순서면 동시에 실패한 제공자가
+                    // running == 0 을 보고 null 로 마감해 이 응답을 버릴 수 있다.
+                    if (winner.complete(new Fetched(p.name(), rates)))
+                        Counter.builder("fx.provider.wins").tag("provider", p.name()).register(meters).increment();
+                    running.decrementAndGet();
+                } else {
+                    running.decrementAndGet();
+                    Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+                    log.warn("환율 제공자 {} 실패: {}", p.name(), cause.toString());
+                    trigger(i + 1);
+                    finishIfIdle();
+                }
+            });
+        }
+
+        // 시작할 제공자가 더 없고 진행 중인 요청도 없으면 실패로 마감
+        private void finishIfIdle() {
+            if (started.get() > providers.size() && running.get() == 0)
+                winner.complete(null);
+        }
+    }
+
+    @Override
     public Snapshot snapshot(String currency) {
         BigDecimal rate = krwPer(currency);
-        Cached c = cache.get(currency.toUpperCase(Locale.ROOT));
-        return new Snapshot(rate, c != null ? c.at : Instant.now(), c != null ? c.source : "unknown");
+        RateTable t = table;
+        if (t == null) return new Snapshot(rate, Instant.now(), "unknown", false);
+        // 갱신 주기를 두 번 이상 놓친 환율이면 본문에 지연 표시
+        boolean stale = t.age().compareTo(props.fx().refreshInterval().multipliedBy(2)) > 0;
+        return new Snapshot(rate, t.asOf(), t.source(), stale);
     }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private record RateResp(Map<String, BigDecimal> rates) {
+    // 과거 날짜는 그날(없으면 그 이전 가장 가까운 날) 저장된 환율표로 계산한다. 네트워크 호출 없음.
+    @Override
+    public Snapshot snapshotOn(String currency, LocalDate date) {
+        if (!date.isBefore(today()))
+            return snapshot(currency);
+        String cur = Objects.requireNonNull(currency, "currency").toUpperCase(Locale.ROOT);
+        return snapshots.onOrBefore(date)
+                .map(s -> new Snapshot("KRW".equals(cur) ? BigDecimal.ONE
+                        : new RateTable(s.base(), s.rates(), s.asOf(), s.source()).krwPer(cur),
+                        s.asOf(), s.source() + " (" + s.date() + " 저장본)", false))
+                .orElseGet(() -> snapshot(currency));
     }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private record ErApiResp(String result, Map<String, BigDecimal> rates) {
-    }
+    /**
+     * 기준 통화 1 단위당 각 통화 환율표. 통화쌍은 교차 환율로 계산한다.
+     * 예) base=USD 일 때 1 EUR = rates[KRW] / rates[EUR] KRW
+     */
+    private record RateTable(String base, Map<String, BigDecimal> rates, Instant asOf, String source) {
+        Duration age() {
+            return Duration.between(asOf, Instant.now());
+        }
+
+        BigDecimal krwPer(String currency) {
+            return cross(currency, "KRW");
+        }
 
-    private record Cached(BigDecimal rate, Instant at, String source) {
-        boolean isFresh() {
-            return at.plus(TTL).isAfter(Instant.now());
+        // 1 from = ? to
+        BigDecimal cross(String from, String to) {
+            BigDecimal f = base.equals(from) ? BigDecimal.ONE : rates.get(from);
+            BigDecimal t = base.equals(to) ? BigDecimal.ONE : rates.get(to);
+            if (f == null || t == null || f.signum() <= 0)
+                throw new IllegalStateException("환율 조회 실패: " + from + "→" + to);
+            return t.divide(f, MathContext.DECIMAL64);
         }
     }
 
-    // 메일 본문에 사용할 스냅샷 (asOf 시각/출처 포함)
-    public record Snapshot(BigDecimal krwPer, Instant asOf, String source) {
+    // 메일 본문에 사용할 스냅샷 (asOf 시각/출처, 갱신 지연 여부 포함)
+    public record Snapshot(BigDecimal krwPer, Instant asOf, String source, boolean stale) {
     }
 }
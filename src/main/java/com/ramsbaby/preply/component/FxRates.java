@@ -0,0 +1,20 @@
+package com.ramsbaby.preply.component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 통화 → KRW 환율 소스. 운영은 외부 API({@link FxRateService}),
+ * replay 프로필은 고정 환율표 파일({@link ReplayFxRates}).
+ */
+public interface FxRates {
+
+    BigDecimal krwPer(String currency);
+
+    FxRateService.Snapshot snapshot(String currency);
+
+    // 특정 날짜 기준 환율 (과거 날짜 백필용). 기본은 최신 환율.
+    default FxRateService.Snapshot snapshotOn(String currency, LocalDate date) {
+        return snapshot(currency);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ramsbaby.preply.component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.FxDailySnapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 일별 환율표를 append-only 바이너리 파일(fx-snapshots.bin, 형식은 {@link RecordFile})로 보관한다.
+ * 레코드: [길이 int][본문][CRC32 int], 본문 = epochDay int, base 3B, asOf long, source UTF, 개수 short,
+ * (통화 3B, unscaled long, scale byte) × 개수. 통화 160개 기준 하루 약 2KB.
+ * - 같은 날짜가 여러 번 있으면 나중 레코드가 이긴다.
+ * - 중간에 죽어 꼬리가 깨졌으면 마지막 정상 레코드까지만 읽고 잘라낸다.
+ * 메모리에는 정렬된 int[] epochDay 와 스냅샷 배열로 올려 날짜 조회를 이진 탐색으로 처리한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FxSnapshotStore {
+
+    private static final String FILE_NAME = "fx-snapshots.bin";
+    private static final int MAX_RECORD = 1 << 20;
+
+    private final AppProps props;
+
+    private boolean loaded;
+    private int[] days = new int[0];
+    private FxDailySnapshot[] snaps = new FxDailySnapshot[0];
+
+    // date 이전(포함) 가장 최근 스냅샷
+    public synchronized Optional<FxDailySnapshot> onOrBefore(LocalDate date) {
+        load();
+        int i = Arrays.binarySearch(days, (int) date.toEpochDay());
+        if (i < 0)
+            i = -i - 2;
+        return i >= 0 ? Optional.of(snaps[i]) : Optional.empty();
+    }
+
+    public synchronized Optional<FxDailySnapshot> latest() {
+        load();
+        return days.length == 0 ? Optional.empty() : Optional.of(snaps[days.length - 1]);
+    }
+
+    public synchronized boolean has(LocalDate date) {
+        load();
+        return Arrays.binarySearch(days, (int) date.toEpochDay()) >= 0;
+    }
+
+    // 파일 끝에 추가하고 인덱스에 반영 (실패해도 메모리 인덱스는 갱신)
+    public synchronized void append(FxDailySnapshot s) {
+        load();
+        index(s);
+        try {
+            RecordFile.append(path(), encode(s));
+        } catch (IOException e) {
+            // 다음 갱신 때 다시 기록되므로 치명적이지 않음
+            log.warn("환율 스냅샷 저장 실패: {}", e.toString());
+        }
+    }
+
+    private void load() {
+        if (loaded)
+            return;
+        loaded = true;
+        int count;
+        try {
+            count = RecordFile.readAll(path(), MAX_RECORD, "환율 스냅샷", (offset, body) -> index(decode(body)));
+        } catch (IOException e) {
+            log.warn("환율 스냅샷 읽기 실패: {}", e.toString());
+            return;
+        }
+        if (count > 0)
+            log.info("환율 스냅샷 {}건 로드 ({}일치)", count, days.length);
+    }
+
+    // 정렬 유지하며 삽입 (같은 날짜면 교체)
+    private void index(FxDailySnapshot s) {
+        int day = (int) s.date().toEpochDay();
+        int i = Arrays.binarySearch(days, day);
+        if (i >= 0) {
+            snaps[i] = s;
+            return;
+        }
+        int at = -i - 1;
+        int n = days.length;
+        int[] d = new int[n + 1];
+        FxDailySnapshot[] v = new FxDailySnapshot[n + 1];
+        System.arraycopy(days, 0, d, 0, at);
+        System.arraycopy(snaps, 0, v, 0, at);
+        d[at] = day;
+        v[at] = s;
+        System.arraycopy(days, at, d, at + 1, n - at);
+        System.arraycopy(snaps, at, v, at + 1, n - at);
+        days = d;
+        snaps = v;
+    }
+
+    private static byte[] encode(FxDailySnapshot s) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64 + s.rates().size() * 12);
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeInt((int) s.date().toEpochDay());
+            RecordFile.writeCode(out, s.base());
+            out.writeLong(s.asOf().toEpochMilli());
+            out.writeUTF(s.source() == null ? "" : s.source());
+            Map<String, BigDecimal> rates = new LinkedHashMap<>();
+            s.rates().forEach((k, v) -> {
+                if (k != null && k.length() == 3 && v != null)
+                    rates.put(k, v);
+            });
+            out.writeShort(rates.size());
+            for (var e : rates.entrySet()) {
+                RecordFile.writeCode(out, e.getKey());
+                RecordFile.writeDecimal(out, e.getValue());
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static FxDailySnapshot decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        LocalDate date = LocalDate.ofEpochDay(in.readInt());
+        String base = RecordFile.readCode(in);
+        Instant asOf = Instant.ofEpochMilli(in.readLong());
+        String source = in.readUTF();
+        int n = in.readUnsignedShort();
+        Map<String, BigDecimal> rates = new LinkedHashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            String code = RecordFile.readCode(in);
+            rates.put(code, RecordFile.readDecimal(in));
+        }
+        return new FxDailySnapshot(date, base, rates, asOf, source);
+    }
+
+    private Path path() {
+        return Path.of(props.storage().dir()).toAbsolutePath().resolve(FILE_NAME);
+    }
+}
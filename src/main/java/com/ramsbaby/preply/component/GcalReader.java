@@ -1,13 +1,20 @@
 package com.ramsbaby.preply.component;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
@@ -15,23 +22,60 @@ import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.Events;
 import com.google.auth.http.HttpCredentialsAdapter;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.CalendarIndex;
 import com.ramsbaby.preply.dto.LessonEvent;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Profile("!replay")
 @RequiredArgsConstructor
-public class GcalReader {
+@Slf4j
+public class GcalReader implements LessonCalendar {
     private final AppProps props;
     private final ResourceLoader resourceLoader;
+    private final CalendarIndexStore indexStore;
+    private final MeterRegistry meters;
+
+    // 캘린더 항목 중 실제로 쓰는 필드만 받는다 (바쁜 캘린더에서 응답 크기 절감)
+    private static final String FIELDS = "items(summary,start),nextPageToken";
+    private static final String SYNC_FIELDS = "items(id,status,summary,start),nextPageToken,nextSyncToken";
+    private static final int PAGE_SIZE = 250;
+    private static final int HTTP_GONE = 410;
+
+    // HTTP 전송/자격증명/토큰을 재사용하는 싱글턴 클라이언트. 첫 호출 때 만든다.
+    // Calendar 는 thread-safe 하고, 토큰 만료 시 HttpCredentialsAdapter 가 요청 전에 자동 갱신한다.
+    private volatile Calendar client;
+
+    // 증분 동기화 결과의 메모리 사본: 인덱스 + 시작 시각 순 정렬 배열(날짜 범위 조회용)
+    private volatile Synced synced;
+
+    private record Synced(CalendarIndex index, CalendarIndex.Item[] byStart, Instant syncedAt) {
+    }
 
     private static record DateWindow(Instant start, Instant end) {
     }
 
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("calendar.index.events", this, r -> r.synced == null ? 0 : r.synced.byStart().length)
+                .description("증분 동기화 로컬 인덱스의 일정 수").register(meters);
+        TimeGauge.builder("calendar.index.age", this, TimeUnit.SECONDS,
+                r -> r.synced == null ? Double.NaN : Duration.between(r.synced.syncedAt(), Instant.now()).toSeconds())
+                .description("마지막 캘린더 동기화 이후 경과 시간").register(meters);
+    }
+
     private HttpCredentialsAdapter requestInitializer() throws IOException {
         String cfg = props.gcal().credentialsPath(); // "classpath:calendar-json/preply-sa.json"
         var resource = resourceLoader.getResource(cfg); // classpath:/ 파일:/ 둘 다 지원
@@ -42,20 +86,59 @@ public class GcalReader {
         }
     }
 
-    public List<LessonEvent> loadTodayPreplyEvents() {
+    @Override
+    public List<LessonEvent> loadPreplyEvents(LocalDate date) {
+        return loadPreplyEvents(date, date.plusDays(1));
+    }
+
+    /**
+     * [from, to) 날짜 범위의 Preply 레슨.
+     * 증분 동기화 모드면 변경분만 받아 로컬 인덱스에 반영한 뒤 인덱스에서 답하고,
+     * 아니면 기간 조회(events.list timeMin/timeMax)로 매번 받아온다.
+     */
+    public List<LessonEvent> loadPreplyEvents(LocalDate from, LocalDate to) {
         try {
-            Calendar client = newCalendarClient();
             var tz = ZoneId.of(props.gcal().timeZone());
-            DateWindow win = todayWindow(tz);
+            DateWindow win = new DateWindow(from.atStartOfDay(tz).toInstant(), to.atStartOfDay(tz).toInstant());
+            String suffix = props.gcal().preplySuffix();
 
-            Events resp = client.events().list(props.gcal().calendarId())
-                    .setTimeMin(new com.google.api.client.util.DateTime(java.util.Date.from(win.start())))
-                    .setTimeMax(new com.google.api.client.util.DateTime(java.util.Date.from(win.end())))
-                    .setSingleEvents(true)
-                    .setOrderBy("startTime")
-                    .execute();
+            if (props.gcal().incrementalSync())
+                return fromIndex(sync(), win, tz, suffix);
 
-            return toLessonEvents(resp, tz, props.gcal().preplySuffix());
+            // nextPageToken 이 없을 때까지 페이지를 이어 받는다
+            Calendar client = client();
+            List<Event> items = new ArrayList<>();
+            String pageToken = null;
+            Timer.Sample sample = Timer.start(meters);
+            PreplyEvents.CalendarList event = listEvent("window");
+            boolean ok = false;
+            try {
+                do {
+                    Events resp = client.events().list(props.gcal().calendarId())
+                            .setTimeMin(new com.google.api.client.util.DateTime(java.util.Date.from(win.start())))
+                            .setTimeMax(new com.google.api.client.util.DateTime(java.util.Date.from(win.end())))
+                            .setSingleEvents(true)
+                            .setOrderBy("startTime")
+                            .setMaxResults(PAGE_SIZE)
+                            .setFields(FIELDS)
+                            .setPageToken(pageToken)
+                            .execute();
+                    event.pages++;
+                    if (resp.getItems() != null)
+                        items.addAll(resp.getItems());
+                    pageToken = resp.getNextPageToken();
+                } while (pageToken != null);
+                ok = true;
+            } catch (GoogleJsonResponseException e) {
+                event.httpStatus = e.getStatusCode();
+                throw e;
+            } finally {
+                sample.stop(listTimer("window", ok));
+                event.items = items.size();
+                event.commit();
+            }
+
+            return toLessonEvents(items, tz, suffix);
 
         } catch (GoogleJsonResponseException gjre) {
             var code = gjre.getStatusCode();
@@ -76,6 +159,21 @@ public class GcalReader {
 
     }
 
+    private Calendar client() throws Exception {
+        Calendar c = client;
+        if (c == null) {
+            synchronized (this) {
+                c = client;
+                if (c == null) {
+                    // 실패하면 캐시하지 않으므로 다음 호출에서 다시 시도한다
+                    c = newCalendarClient();
+                    client = c;
+                }
+            }
+        }
+        return c;
+    }
+
     private Calendar newCalendarClient() throws Exception {
         var http = GoogleNetHttpTransport.newTrustedTransport();
         var json = GsonFactory.getDefaultInstance();
@@ -85,29 +183,149 @@ public class GcalReader {
                 .build();
     }
 
-    private DateWindow todayWindow(ZoneId tz) {
-        var start = LocalDate.now(tz).atStartOfDay(tz).toInstant();
-        var end = LocalDate.now(tz).plusDays(1).atStartOfDay(tz).toInstant();
-        return new DateWindow(start, end);
+    /**
+     * syncToken 으로 변경/취소된 이벤트만 받아 인덱스에 반영한다.
+     * 토큰이 없거나(첫 실행, calendarId 변경) 410 GONE 으로 만료되면 전체 동기화한다.
+     * syncToken 요청에는 timeMin/timeMax/orderBy 를 쓸 수 없으므로 캘린더 전체를 대상으로 한다.
+     */
+    private synchronized Synced sync() throws Exception {
+        Calendar client = client();
+        String calendarId = props.gcal().calendarId();
+        CalendarIndex index = synced != null ? synced.index() : indexStore.load().orElse(null);
+        if (index != null && (index.version() != CalendarIndex.VERSION || index.syncToken() == null
+                || !calendarId.equals(index.calendarId())))
+            index = null;
+
+        Map<String, CalendarIndex.Item> events = index == null ? new HashMap<>() : new HashMap<>(index.events());
+        String token = index == null ? null : index.syncToken();
+        if (token == null)
+            log.info("캘린더 전체 동기화 (calendarId={})", calendarId);
+        String next;
+        try {
+            next = pull(client, calendarId, token, events);
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() != HTTP_GONE || token == null)
+                throw e;
+            log.info("캘린더 syncToken 만료(410), 전체 동기화합니다");
+            events.clear();
+            next = pull(client, calendarId, null, events);
+        }
+
+        CalendarIndex updated = new CalendarIndex(CalendarIndex.VERSION, calendarId, next, events);
+        if (!updated.equals(index))
+            indexStore.save(updated);
+        CalendarIndex.Item[] byStart = events.values().stream()
+                .sorted(Comparator.comparingLong(CalendarIndex.Item::startMillis))
+                .toArray(CalendarIndex.Item[]::new);
+        Synced s = new Synced(updated, byStart, Instant.now());
+        synced = s;
+        return s;
     }
 
-    private List<LessonEvent> toLessonEvents(Events resp, ZoneId tz, String suffix) {
+    // 변경분(syncToken 이 null 이면 전체)을 events 에 반영하고 nextSyncToken 을 돌려준다
+    private String pull(Calendar client, String calendarId, String syncToken,
+            Map<String, CalendarIndex.Item> events) throws IOException {
+        String pageToken = null;
+        int changed = 0;
+        Timer.Sample sample = Timer.start(meters);
+        String mode = syncToken == null ? "full" : "incremental";
+        PreplyEvents.CalendarList event = listEvent(mode);
+        boolean ok = false;
+        try {
+            while (true) {
+                Events resp = client.events().list(calendarId)
+                        .setSingleEvents(true)
+                        .setMaxResults(PAGE_SIZE)
+                        .setFields(SYNC_FIELDS)
+                        .setSyncToken(syncToken)
+                        .setPageToken(pageToken)
+                        .execute();
+                event.pages++;
+                if (resp.getItems() != null) {
+                    for (Event e : resp.getItems()) {
+                        changed++;
+                        if ("cancelled".equals(e.getStatus()) || e.getStart() == null)
+                            events.remove(e.getId());
+                        else
+                            events.put(e.getId(), new CalendarIndex.Item(e.getSummary(), startMillis(e)));
+                    }
+                }
+                pageToken = resp.getNextPageToken();
+                if (pageToken == null) {
+                    log.debug("캘린더 동기화: 변경 {}건, 전체 {}건", changed, events.size());
+                    ok = true;
+                    return resp.getNextSyncToken();
+                }
+            }
+        } catch (GoogleJsonResponseException e) {
+            event.httpStatus = e.getStatusCode();
+            throw e;
+        } finally {
+            sample.stop(listTimer(mode, ok));
+            event.items = changed;
+            event.commit();
+        }
+    }
+
+    // 성공이면 200 으로 남고, 오류 응답이면 catch 에서 상태 코드로 바꾼다
+    private static PreplyEvents.CalendarList listEvent(String mode) {
+        PreplyEvents.CalendarList event = new PreplyEvents.CalendarList();
+        event.mode = mode;
+        event.httpStatus = 200;
+        event.begin();
+        return event;
+    }
+
+    // events.list 호출(전 페이지) 소요 시간. mode: window(기간 조회)/full(전체 동기화)/incremental(syncToken)
+    private Timer listTimer(String mode, boolean ok) {
+        return Timer.builder("gcal.list")
+                .tag("mode", mode)
+                .tag("outcome", ok ? "success" : "failure")
+                .register(meters);
+    }
+
+    // 시작 시각 순 배열에서 [start, end) 구간만 이진 탐색으로 잘라 변환
+    private static List<LessonEvent> fromIndex(Synced synced, DateWindow win, ZoneId tz, String suffix) {
+        CalendarIndex.Item[] byStart = synced.byStart();
+        long start = win.start().toEpochMilli();
+        long end = win.end().toEpochMilli();
+        int lo = 0;
+        int hi = byStart.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (byStart[mid].startMillis() < start)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
         List<LessonEvent> out = new ArrayList<>();
-        resp.getItems().forEach(item -> {
-            String summary = item.getSummary();
-            if (summary == null || !summary.endsWith(suffix))
-                return;
-
-            String base = summary.substring(0, summary.length() - suffix.length()).trim();
-            String name = base.replaceAll("\\s*\\(.*?\\)\\s*", " ").replaceAll("\\s+", " ").trim();
-            long startMillis = item.getStart().getDateTime() != null
-                    ? item.getStart().getDateTime().getValue()
-                    : item.getStart().getDate().getValue();
-            var startAt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(startMillis), tz);
-
-            out.add(new LessonEvent(PreplyRateCacheLoader.normalize(name), startAt));
-        });
+        for (int i = lo; i < byStart.length && byStart[i].startMillis() < end; i++)
+            lessonEvent(byStart[i].summary(), byStart[i].startMillis(), tz, suffix).ifPresent(out::add);
         return out;
     }
 
+    static List<LessonEvent> toLessonEvents(List<Event> items, ZoneId tz, String suffix) {
+        List<LessonEvent> out = new ArrayList<>();
+        items.forEach(item -> lessonEvent(item.getSummary(), startMillis(item), tz, suffix).ifPresent(out::add));
+        return out;
+    }
+
+    // 제목이 Preply 접미사로 끝나는 일정만 레슨으로 본다
+    private static Optional<LessonEvent> lessonEvent(String summary, long startMillis, ZoneId tz,
+            String suffix) {
+        if (summary == null || !summary.endsWith(suffix))
+            return Optional.empty();
+
+        String base = summary.substring(0, summary.length() - suffix.length()).trim();
+        String name = base.replaceAll("\\s*\\(.*?\\)\\s*", " ").replaceAll("\\s+", " ").trim();
+        var startAt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(startMillis), tz);
+        return Optional.of(new LessonEvent(PreplyRateCacheLoader.normalize(name), startAt));
+    }
+
+    private static long startMillis(Event item) {
+        return item.getStart().getDateTime() != null
+                ? item.getStart().getDateTime().getValue()
+                : item.getStart().getDate().getValue();
+    }
+
 }
\ No newline at end of file
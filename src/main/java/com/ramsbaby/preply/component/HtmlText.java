@@ -0,0 +1,239 @@
+package com.ramsbaby.preply.component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DOM 을 만들지 않는 스트리밍 HTML → 텍스트 추출기.
+ * 한 번의 순회로 태그 제거, 엔티티 디코딩, 공백 정규화를 함께 처리한다.
+ * - script/style/주석 내용은 버린다 (script/style 자리는 블록 경계로 본다).
+ * - 블록 태그와 br 경계는 공백 한 칸으로 (인라인 태그는 붙여서) 이어 붙인다.
+ * - NBSP/NNBSP → 공백, ZWSP/ZWJ/BOM/SHY 제거, 공백·제어문자 연속 → 한 칸, 앞뒤 trim.
+ * 평문(text/plain)을 넣어도 같은 규칙으로 정규화된다.
+ */
+final class HtmlText {
+
+    private HtmlText() {
+    }
+
+    // 경계에 공백을 넣지 않는 인라인 태그 (그 외 태그는 블록으로 취급)
+    private static final Set<String> INLINE = Set.of(
+            "a", "abbr", "acronym", "b", "bdi", "bdo", "big", "button", "cite", "code", "data", "dfn", "em",
+            "font", "i", "img", "input", "kbd", "label", "mark", "nobr", "q", "s", "samp", "select", "small",
+            "span", "strike", "strong", "sub", "sup", "textarea", "time", "tt", "u", "var", "wbr");
+
+    private static final Map<String, Character> ENTITIES = Map.ofEntries(
+            Map.entry("nbsp", '\u00A0'), Map.entry("amp", '&'), Map.entry("lt", '<'), Map.entry("gt", '>'),
+            Map.entry("quot", '"'), Map.entry("apos", '\''), Map.entry("zwnj", '\u200C'),
+            Map.entry("zwj", '\u200D'), Map.entry("shy", '\u00AD'), Map.entry("middot", '·'),
+            Map.entry("ndash", '–'), Map.entry("mdash", '—'), Map.entry("hellip", '…'),
+            Map.entry("lsquo", '‘'), Map.entry("rsquo", '’'), Map.entry("ldquo", '“'), Map.entry("rdquo", '”'),
+            Map.entry("copy", '©'), Map.entry("reg", '®'), Map.entry("euro", '€'), Map.entry("pound", '£'),
+            Map.entry("yen", '¥'), Map.entry("won", '₩'));
+
+    private static final int MAX_ENTITY_LEN = 10;
+
+    static String extract(CharSequence in) {
+        if (in == null)
+            return "";
+        Out out = new Out(in.length() / 2);
+        int n = in.length();
+        int i = 0;
+        while (i < n) {
+            char c = in.charAt(i);
+            if (c == '<') {
+                i = tag(in, i, out);
+            } else if (c == '&') {
+                i = entity(in, i, out);
+            } else {
+                out.put(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    // '<' 위치에서 태그 하나를 소비하고 다음 위치를 돌려준다
+    private static int tag(CharSequence in, int i, Out out) {
+        int n = in.length();
+        if (startsWith(in, i, "<!--")) {
+            int end = indexOf(in, "-->", i + 4);
+            return end < 0 ? n : end + 3;
+        }
+        int j = i + 1;
+        boolean closing = j < n && in.charAt(j) == '/';
+        if (closing)
+            j++;
+        if (j < n && (in.charAt(j) == '!' || in.charAt(j) == '?')) {
+            int end = indexOf(in, ">", j);
+            return end < 0 ? n : end + 1;
+        }
+        if (closing && j < n && !Character.isLetter(in.charAt(j))) {
+            // "</>" 나 "</3 …>" 는 '>' 까지 버린다 (Jsoup 과 같음)
+            int end = indexOf(in, ">", j);
+            return end < 0 ? n : end + 1;
+        }
+        if (j >= n || !Character.isLetter(in.charAt(j))) {
+            // "a < b" 처럼 태그가 아닌 '<'
+            out.put('<');
+            return i + 1;
+        }
+        int nameStart = j;
+        while (j < n && Character.isLetterOrDigit(in.charAt(j)))
+            j++;
+        int end = tagEnd(in, j);
+        String name = in.subSequence(nameStart, j).toString().toLowerCase(java.util.Locale.ROOT);
+        if (!closing && (name.equals("script") || name.equals("style"))) {
+            // Jsoup 은 script/style 을 블록으로 보므로 앞뒤 텍스트를 붙이지 않는다
+            out.space();
+            int close = indexOfIgnoreCase(in, "</" + name, end);
+            if (close < 0)
+                return n;
+            int closeEnd = indexOf(in, ">", close);
+            return closeEnd < 0 ? n : closeEnd + 1;
+        }
+        if (!INLINE.contains(name))
+            out.space();
+        return end;
+    }
+
+    // 속성 값의 따옴표 안 '>' 는 무시하고 태그 끝 다음 위치를 찾는다
+    private static int tagEnd(CharSequence in, int j) {
+        int n = in.length();
+        char quote = 0;
+        for (; j < n; j++) {
+            char c = in.charAt(j);
+            if (quote != 0) {
+                if (c == quote)
+                    quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return j + 1;
+            }
+        }
+        return n;
+    }
+
+    // '&' 위치에서 엔티티 하나를 디코딩한다. 모르는 엔티티는 '&' 그대로 둔다.
+    private static int entity(CharSequence in, int i, Out out) {
+        int n = in.length();
+        int semi = -1;
+        for (int j = i + 1; j < n && j <= i + MAX_ENTITY_LEN; j++) {
+            char c = in.charAt(j);
+            if (c == ';') {
+                semi = j;
+                break;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '#')
+                break;
+        }
+        if (semi > i + 1) {
+            if (in.charAt(i + 1) == '#') {
+                int cp = numeric(in, i + 2, semi);
+                if (cp > 0 && Character.isValidCodePoint(cp)) {
+                    if (Character.isBmpCodePoint(cp)) {
+                        out.put((char) cp);
+                    } else {
+                        out.put(Character.highSurrogate(cp));
+                        out.put(Character.lowSurrogate(cp));
+                    }
+                    return semi + 1;
+                }
+            } else {
+                Character ch = ENTITIES.get(in.subSequence(i + 1, semi).toString());
+                if (ch != null) {
+                    out.put(ch);
+                    return semi + 1;
+                }
+            }
+        }
+        out.put('&');
+        return i + 1;
+    }
+
+    private static int numeric(CharSequence in, int from, int to) {
+        if (from >= to)
+            return -1;
+        int radix = 10;
+        if (in.charAt(from) == 'x' || in.charAt(from) == 'X') {
+            radix = 16;
+            from++;
+        }
+        int v = 0;
+        for (int k = from; k < to; k++) {
+            int d = Character.digit(in.charAt(k), radix);
+            if (d < 0 || v > 0x10FFFF)
+                return -1;
+            v = v * radix + d;
+        }
+        return from < to ? v : -1;
+    }
+
+    private static boolean startsWith(CharSequence in, int i, String s) {
+        if (i + s.length() > in.length())
+            return false;
+        for (int k = 0; k < s.length(); k++) {
+            if (in.charAt(i + k) != s.charAt(k))
+                return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence in, String s, int from) {
+        for (int i = from; i + s.length() <= in.length(); i++) {
+            if (startsWith(in, i, s))
+                return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfIgnoreCase(CharSequence in, String s, int from) {
+        outer: for (int i = from; i + s.length() <= in.length(); i++) {
+            for (int k = 0; k < s.length(); k++) {
+                if (Character.toLowerCase(in.charAt(i + k)) != s.charAt(k))
+                    continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /** 공백을 미뤄서(pending) 붙이며 정규화하는 출력 버퍼 */
+    private static final class Out {
+        private final StringBuilder sb;
+        private boolean pendingSpace;
+
+        Out(int capacity) {
+            sb = new StringBuilder(Math.max(16, capacity));
+        }
+
+        void put(char c) {
+            switch (c) {
+                case '\u200B', '\u200C', '\u200D', '\uFEFF', '\u2060', '\u00AD' -> {
+                    // ZWSP/ZWJ/BOM/SHY 제거
+                }
+                case '\u00A0', '\u202F', ' ', '\t', '\n', '\u000B', '\f', '\r' -> space();
+                default -> {
+                    if (c <= '\u001F') {
+                        space();
+                        return;
+                    }
+                    if (pendingSpace && sb.length() > 0)
+                        sb.append(' ');
+                    pendingSpace = false;
+                    sb.append(c);
+                }
+            }
+        }
+
+        void space() {
+            pendingSpace = true;
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON 환율 API 공통 처리: HttpClient.sendAsync 로 호출하고 상태 코드/KRW 포함 여부를 검증한다.
+ */
+abstract class HttpFxProvider implements FxProvider {
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    protected final ObjectMapper om = new ObjectMapper();
+
+    protected abstract URI uri(String base);
+
+    // 응답 본문 → 환율표 (형식이 맞지 않으면 null)
+    protected abstract Map<String, BigDecimal> rates(String body) throws IOException;
+
+    @Override
+    public CompletableFuture<Map<String, BigDecimal>> fetch(String base) {
+        HttpRequest req = HttpRequest.newBuilder(uri(base))
+                .header("Accept", "application/json")
+                .header("User-Agent", "Preply-Summary/1.0")
+                .timeout(Duration.ofSeconds(7))
+                .GET().build();
+        PreplyEvents.FxProviderCall event = new PreplyEvents.FxProviderCall();
+        event.provider = name();
+        event.begin();
+        return HTTP.sendAsync(req, HttpResponse.BodyHandlers.ofString()).thenApply(res -> {
+            event.httpStatus = res.statusCode();
+            event.bytes = res.body() == null ? 0 : res.body().length();
+            if (res.statusCode() != 200) {
+                String body = res.body();
+                if (body != null && body.length() > 300) body = body.substring(0, 300) + "...";
+                throw new IllegalStateException(name() + " HTTP " + res.statusCode() + " body=" + body);
+            }
+            Map<String, BigDecimal> rates;
+            try {
+                rates = rates(res.body());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // KRW 가 없으면 이 서비스에는 쓸모없는 응답
+            if (rates == null || rates.get("KRW") == null)
+                throw new IllegalStateException(name() + " 응답에 KRW 환율 없음");
+            event.success = true;
+            return rates;
+        }).whenComplete((rates, err) -> event.commit());
+    }
+}
@@ -0,0 +1,121 @@
+package com.ramsbaby.preply.component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.eclipse.angus.mail.iap.ByteArray;
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.eclipse.angus.mail.imap.protocol.BODY;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.internet.ContentType;
+import jakarta.mail.internet.MimePart;
+import jakarta.mail.internet.MimeUtility;
+
+/**
+ * IMAP 메시지에서 본문(text/html, 없으면 text/plain) 섹션 하나만 BODY.PEEK 부분 fetch 로 가져온다.
+ * - 섹션 탐색은 프리페치된 BODYSTRUCTURE(CONTENT_INFO)만 사용하므로 추가 왕복이 없다.
+ * - maxBytes 로 앞부분만 받는다. 학생/비용 라벨은 메일 상단에 있으므로 충분하다.
+ */
+final class ImapBodyFetcher {
+
+    private ImapBodyFetcher() {
+    }
+
+    private record Section(String id, Part part) {
+    }
+
+    static Optional<String> fetch(Message m, int maxBytes) throws Exception {
+        if (!(m.getFolder() instanceof IMAPFolder folder))
+            throw new IllegalArgumentException("IMAP 메시지가 아닙니다: " + m.getClass().getName());
+
+        Section sec = find(m, "", "text/html");
+        if (sec == null)
+            sec = find(m, "", "text/plain");
+        if (sec == null)
+            return Optional.empty();
+
+        int msgno = m.getMessageNumber();
+        String sectionId = sec.id();
+        PreplyEvents.MailBodyFetch event = new PreplyEvents.MailBodyFetch();
+        event.begin();
+        BODY body = (BODY) folder.doCommand(p -> maxBytes > 0
+                ? p.peekBody(msgno, sectionId, 0, maxBytes)
+                : p.peekBody(msgno, sectionId));
+        if (body == null || body.getByteArray() == null)
+            return Optional.empty();
+
+        ByteArray ba = body.getByteArray();
+        int len = ba.getCount();
+        event.section = sectionId;
+        event.bytes = len;
+        event.truncated = maxBytes > 0 && len >= maxBytes;
+        event.commit();
+        // 잘린 경우 마지막 줄바꿈까지만 사용 (QP/Base64 시퀀스나 멀티바이트 문자가 중간에 끊기지 않게)
+        if (maxBytes > 0 && len >= maxBytes) {
+            int lastLf = lastIndexOf(ba.getBytes(), ba.getStart(), len, (byte) '\n');
+            if (lastLf > 0)
+                len = lastLf;
+        }
+        return Optional.of(decode(ba.getBytes(), ba.getStart(), len, sec.part()));
+    }
+
+    /**
+     * BODYSTRUCTURE 기준 섹션 번호를 계산하며 원하는 MIME 타입의 첫 파트를 찾는다.
+     * - 최상위 단일 파트: TEXT
+     * - multipart 의 i 번째 자식: {부모}.i (최상위면 i)
+     * - message/rfc822 안의 단일 파트: {부모}.TEXT
+     */
+    private static Section find(Part p, String id, String mime) throws Exception {
+        if (p.isMimeType(mime))
+            return new Section(id.isEmpty() ? "TEXT" : id, p);
+        if (p.isMimeType("multipart/*")) {
+            Multipart mp = (Multipart) p.getContent();
+            for (int i = 0; i < mp.getCount(); i++) {
+                String child = id.isEmpty() ? String.valueOf(i + 1) : id + "." + (i + 1);
+                Section r = find(mp.getBodyPart(i), child, mime);
+                if (r != null)
+                    return r;
+            }
+        }
+        if (p.isMimeType("message/rfc822")) {
+            Part inner = (Part) p.getContent();
+            if (inner.isMimeType(mime))
+                return new Section(id + ".TEXT", inner);
+            return find(inner, id, mime);
+        }
+        return null;
+    }
+
+    private static String decode(byte[] bytes, int start, int len, Part part) throws MessagingException, IOException {
+        String encoding = part instanceof MimePart mp ? mp.getEncoding() : null;
+        InputStream raw = new ByteArrayInputStream(bytes, start, len);
+        try (InputStream in = encoding == null ? raw : MimeUtility.decode(raw, encoding)) {
+            return new String(in.readAllBytes(), charsetOf(part));
+        }
+    }
+
+    private static Charset charsetOf(Part part) {
+        try {
+            String cs = new ContentType(part.getContentType()).getParameter("charset");
+            return cs == null ? StandardCharsets.UTF_8 : Charset.forName(MimeUtility.javaCharset(cs));
+        } catch (Exception e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static int lastIndexOf(byte[] bytes, int start, int len, byte b) {
+        for (int i = start + len - 1; i >= start; i--) {
+            if (bytes[i] == b)
+                return i - start;
+        }
+        return -1;
+    }
+}
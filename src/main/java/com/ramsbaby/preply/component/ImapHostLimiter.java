@@ -0,0 +1,55 @@
+package com.ramsbaby.preply.component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ramsbaby.preply.dto.MailboxSnapshot;
+
+/**
+ * IMAP 서버(호스트)별 동시 연결 수 상한. 같은 서버를 쓰는 테넌트끼리 perHost 개의 슬롯을 나눠 쓴다.
+ * 메일함 소스를 감싸 {@link MailboxSource#acquire} 에서 병렬 연결 수만큼 슬롯을 잡고(최대 maxWait 대기),
+ * 돌려받은 Permit 을 닫으면 한 번만 반납한다.
+ */
+final class ImapHostLimiter {
+
+    private final int perHost;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    ImapHostLimiter(int perHost) {
+        this.perHost = Math.max(1, perHost);
+    }
+
+    MailboxSource limit(String host, int connections, Duration maxWait, MailboxSource source) {
+        Semaphore slots = permits.computeIfAbsent(host.toLowerCase(Locale.ROOT), h -> new Semaphore(perHost, true));
+        int n = Math.max(1, Math.min(connections, perHost));
+        return new MailboxSource() {
+            @Override
+            public MailboxSnapshot loadSnapshot(LocalDate date) {
+                return source.loadSnapshot(date);
+            }
+
+            @Override
+            public Permit acquire() {
+                try {
+                    if (!slots.tryAcquire(n, maxWait.toNanos(), TimeUnit.NANOSECONDS))
+                        throw new IllegalStateException(
+                                "IMAP 연결 슬롯을 " + maxWait.toSeconds() + "초 안에 얻지 못했습니다: " + host);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("IMAP 연결 대기 중 인터럽트: " + host, e);
+                }
+                AtomicBoolean held = new AtomicBoolean(true);
+                return () -> {
+                    if (held.compareAndSet(true, false))
+                        slots.release(n);
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,180 @@
+package com.ramsbaby.preply.component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.eclipse.angus.mail.imap.IMAPStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ramsbaby.preply.config.AppProps;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Folder;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Store;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * IMAP IDLE 로 INBOX 를 계속 지켜보며 새 메일이 오면 단가 캐시({@link PreplyRateCacheLoader})를 바로 갱신한다.
+ * - 연결(재연결)할 때마다 인덱스의 high-water UID 이후를 먼저 따라잡으므로, 끊긴 동안 온 메일도 빠지지 않는다.
+ * - idleKeepalive 마다 NOOP 을 보내 서버/NAT 가 유휴 연결을 끊지 않게 하고, NOOP 이 실패하면 연결을 닫아 재연결시킨다.
+ * - 재연결은 1초부터 5분까지 지수 백오프. 연결돼 있는 동안에만 요약 실행이 메모리 캐시를 바로 쓴다.
+ * - app.mail.imap.idle=false(기본)면 아무것도 하지 않는다. (AOT 빌드에서도 켜고 끌 수 있게 조건부 빈 대신 실행 시점에 확인)
+ */
+@Component
+@Profile("!replay")
+@RequiredArgsConstructor
+@Slf4j
+public class ImapIdleListener {
+
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private final AppProps props;
+    private final PreplyRateCacheLoader loader;
+    private final MeterRegistry meters;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Store store;
+    private volatile IMAPFolder inbox;
+    private Thread worker;
+    private ScheduledExecutorService keepalive;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!props.mail().imap().idle() || running)
+            return;
+        Gauge.builder("imap.idle.connected", this, l -> l.connected ? 1 : 0)
+                .description("IMAP IDLE 연결 여부").register(meters);
+        running = true;
+        keepalive = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("imap-idle-keepalive").daemon().factory());
+        worker = Thread.ofPlatform().name("imap-idle").daemon().start(this::loop);
+        log.info("IMAP IDLE 리스너 시작 (keepalive={})", props.mail().imap().idleKeepalive());
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        if (!running)
+            return;
+        running = false;
+        keepalive.shutdownNow();
+        closeQuietly();
+        worker.interrupt();
+    }
+
+    private void loop() {
+        Duration backoff = MIN_BACKOFF;
+        while (running) {
+            boolean established = false;
+            try {
+                listen();
+            } catch (MessagingException | RuntimeException e) {
+                if (running)
+                    log.warn("IMAP IDLE 연결 끊김: {}", e.toString());
+            } finally {
+                established = connected;
+                disconnected();
+            }
+            if (!running)
+                return;
+            // IDLE 까지 들어갔던 연결이 끊긴 거면 백오프를 처음부터
+            if (established)
+                backoff = MIN_BACKOFF;
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+        }
+    }
+
+    // 연결 1회: 접속 → 따라잡기 → IDLE 반복. 연결이 끊기면 예외로 빠져나온다.
+    private void listen() throws MessagingException {
+        Store s = loader.connect();
+        store = s;
+        if (!((IMAPStore) s).hasCapability("IDLE")) {
+            log.warn("IMAP 서버가 IDLE 을 지원하지 않아 리스너를 끕니다. 요약 실행 시 메일함을 직접 스캔합니다.");
+            running = false;
+            return;
+        }
+        IMAPFolder f = (IMAPFolder) s.getFolder("INBOX");
+        f.open(Folder.READ_ONLY);
+        inbox = f;
+        // 메일 수는 따라잡기 전에 읽는다. 따라잡는 동안 도착한 메일은 수가 달라져 IDLE 전에 한 번 더 따라잡는다.
+        int seen = f.getMessageCount();
+        loader.catchUp(f);
+        loader.setPushConnected(true);
+        connected = true;
+        ScheduledFuture<?> noop = scheduleKeepalive(f);
+        try {
+            while (running && f.isOpen()) {
+                int now = f.getMessageCount();
+                if (now != seen) {
+                    seen = now;
+                    loader.catchUp(f);
+                    continue;
+                }
+                f.idle(true); // EXISTS/EXPUNGE 등 서버 알림이 오거나 NOOP 이 끼어들면 돌아옴
+            }
+        } finally {
+            noop.cancel(false);
+        }
+        if (running)
+            throw new MessagingException("INBOX 가 닫혔습니다");
+    }
+
+    // 다른 스레드에서 폴더 명령을 보내면 진행 중인 IDLE 은 DONE 으로 끝나고 명령 후 다시 IDLE 로 들어간다
+    private ScheduledFuture<?> scheduleKeepalive(IMAPFolder f) {
+        long period = props.mail().imap().idleKeepalive().toMillis();
+        return keepalive.scheduleWithFixedDelay(() -> {
+            try {
+                f.doCommand(p -> {
+                    p.simpleCommand("NOOP", null);
+                    return null;
+                });
+            } catch (MessagingException | RuntimeException e) {
+                log.warn("IMAP NOOP 실패, 재연결합니다: {}", e.toString());
+                closeQuietly();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void disconnected() {
+        connected = false;
+        loader.setPushConnected(false);
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        IMAPFolder f = inbox;
+        Store s = store;
+        inbox = null;
+        store = null;
+        // IDLE 중이거나 죽은 연결일 수 있으므로 명령을 보내지 않고 소켓만 끊는다
+        try {
+            if (f != null && f.isOpen())
+                f.forceClose();
+        } catch (MessagingException | RuntimeException ignored) {
+            // 이미 끊긴 연결
+        }
+        try {
+            if (s != null)
+                s.close();
+        } catch (MessagingException | RuntimeException ignored) {
+            // 이미 끊긴 연결
+        }
+    }
+}
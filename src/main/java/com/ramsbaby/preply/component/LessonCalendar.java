@@ -0,0 +1,15 @@
+package com.ramsbaby.preply.component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.ramsbaby.preply.dto.LessonEvent;
+
+/**
+ * 기준일 Preply 레슨 일정 소스. 운영은 Google Calendar({@link GcalReader}),
+ * replay 프로필은 events.list 응답 JSON 파일({@link ReplayLessonCalendar}).
+ */
+public interface LessonCalendar {
+
+    List<LessonEvent> loadPreplyEvents(LocalDate date);
+}
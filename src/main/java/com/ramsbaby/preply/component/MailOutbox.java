@@ -0,0 +1,414 @@
+package com.ramsbaby.preply.component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.OutboxMessage;
+import com.ramsbaby.preply.dto.OutboxRecord;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요약 메일 아웃박스. 요약 생성은 메일을 로그({@link OutboxStore})에 기록하고 바로 돌아가며,
+ * 전용 발송 스레드가 SMTP 로 보낸다.
+ * - 멱등 키(계정/수신자/제목/본문 해시)가 같은 메일은 대기 중이거나 최근 SENT_RETENTION 안에 보냈으면 다시 넣지 않는다.
+ *   키는 Message-ID 로도 써서, 발송 직후 죽어 재시도되더라도 수신 측에서 중복으로 묶이게 한다.
+ * - 계정별로 SMTP Transport 를 열어 두고 재사용한다. 한 번에 batchSize 통까지 같은 연결로 보내고,
+ *   idleTimeout 동안 쓰지 않은 연결은 닫는다.
+ * - 실패하면 retryBackoff 부터 두 배씩(최대 MAX_BACKOFF) 늦춰 다시 보내고, maxAttempts 번 실패하면 DEAD 로 포기한다.
+ */
+@Component
+@Slf4j
+public class MailOutbox {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+    private static final Duration SENT_RETENTION = Duration.ofDays(7);
+    private static final int COMPACT_AFTER = 500;
+    private static final String MESSAGE_ID_DOMAIN = "preply-summary";
+    // 요약 기준일 헤더 (replay 발송기가 파일 이름에 씀)
+    public static final String SUMMARY_DATE_HEADER = "X-Preply-Summary-Date";
+
+    private final AppProps props;
+    private final OutboxStore store;
+    private final MeterRegistry meters;
+    private final JavaMailSender defaultSender;
+
+    // SMTP 계정 → 발송기 (기본 계정 + 테넌트)
+    private final Map<String, JavaMailSender> senders = new ConcurrentHashMap<>();
+
+    // 아래 상태는 this 로 보호
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+    private final Map<String, Instant> sent = new HashMap<>();
+    private int appendedSinceCompact;
+
+    // 발송 스레드 전용
+    private final Map<String, Connection> connections = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private static final class Pending {
+        private final OutboxMessage message;
+        private int attempts;
+        private Instant nextAttemptAt;
+
+        Pending(OutboxMessage message) {
+            this.message = message;
+            this.nextAttemptAt = message.createdAt();
+        }
+    }
+
+    private static final class Connection {
+        private final Transport transport;
+        private long lastUsedNanos = System.nanoTime();
+
+        Connection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    public MailOutbox(AppProps props, OutboxStore store, MeterRegistry meters, JavaMailSender mailSender) {
+        this.props = props;
+        this.store = store;
+        this.meters = meters;
+        this.defaultSender = mailSender;
+    }
+
+    // 계정(SMTP 사용자)별 발송기 등록. 테넌트 발송기는 TenantRegistry 가 등록한다.
+    public void register(String account, JavaMailSender sender) {
+        senders.put(accountKey(account), sender);
+    }
+
+    // 기본 계정(app.mail.user) 발송기 등록과 로그 복구 (생성자에서 this 를 넘기지 않도록 생성 뒤에)
+    @PostConstruct
+    void recover() {
+        register(props.mail().user(), defaultSender);
+        Instant cutoff = Instant.now().minus(SENT_RETENTION);
+        synchronized (this) {
+            for (OutboxRecord r : store.load()) {
+                switch (r.op()) {
+                    case OutboxRecord.ENQUEUED -> {
+                        if (r.message() != null)
+                            pending.put(r.key(), new Pending(r.message()));
+                    }
+                    case OutboxRecord.RETRY -> {
+                        Pending p = pending.get(r.key());
+                        if (p != null) {
+                            p.attempts = r.attempts();
+                            p.nextAttemptAt = r.at();
+                        }
+                    }
+                    case OutboxRecord.SENT -> {
+                        pending.remove(r.key());
+                        sent.put(r.key(), r.at());
+                    }
+                    case OutboxRecord.DEAD -> pending.remove(r.key());
+                    default -> log.warn("알 수 없는 아웃박스 레코드: {}", r.op());
+                }
+            }
+            sent.values().removeIf(at -> at.isBefore(cutoff));
+            compact();
+            if (!pending.isEmpty())
+                log.info("아웃박스 미발송 메일 {}통 복구", pending.size());
+        }
+        Gauge.builder("outbox.pending", this, o -> o.pendingCount())
+                .description("발송 대기 중인 요약 메일 수").register(meters);
+    }
+
+    // 테넌트 발송기까지 등록된 뒤에 발송을 시작한다
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+        worker = Thread.ofPlatform().name("outbox-sender").daemon().start(this::loop);
+    }
+
+    @PreDestroy
+    void stop() {
+        Thread w;
+        synchronized (this) {
+            running = false;
+            w = worker;
+            notifyAll();
+        }
+        if (w == null)
+            return;
+        w.interrupt();
+        try {
+            w.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 요약 메일을 아웃박스에 넣고 멱등 키를 돌려준다. 발송은 기다리지 않는다.
+     * date 는 요약 기준일로 {@link #SUMMARY_DATE_HEADER} 헤더에 실린다.
+     */
+    public String enqueue(String account, String from, String[] to, String subject, String body, LocalDate date) {
+        String key = key(account, to, subject, body);
+        synchronized (this) {
+            if (pending.containsKey(key) || sent.containsKey(key)) {
+                log.info("같은 요약 메일이 이미 발송(대기) 중이라 건너뜁니다 (key={})", key);
+                return key;
+            }
+            OutboxMessage m = new OutboxMessage(key, accountKey(account), from, List.of(to), subject, body,
+                    Instant.now(), date);
+            append(new OutboxRecord(OutboxRecord.ENQUEUED, key, m, m.createdAt(), 0, null));
+            pending.put(key, new Pending(m));
+            notifyAll();
+        }
+        return key;
+    }
+
+    /**
+     * 대기 중인 메일이 모두 발송(또는 포기)될 때까지 최대 timeout 동안 기다린다. 다 비었으면 true.
+     */
+    public synchronized boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!pending.isEmpty()) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0)
+                return false;
+            wait(left);
+        }
+        return true;
+    }
+
+    private synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private void loop() {
+        try {
+            while (running) {
+                List<OutboxMessage> batch = takeDue();
+                closeIdle();
+                if (!batch.isEmpty())
+                    deliver(batch);
+            }
+        } catch (InterruptedException e) {
+            // 종료
+        } finally {
+            connections.keySet().stream().toList().forEach(this::close);
+        }
+    }
+
+    // 보낼 때가 된 메일을 batchSize 통까지. 없으면 다음 재시도 시각(또는 연결 유휴 점검 시각)까지 기다린다.
+    private synchronized List<OutboxMessage> takeDue() throws InterruptedException {
+        Instant now = Instant.now();
+        int limit = Math.max(1, props.outbox().batchSize());
+        List<OutboxMessage> due = new ArrayList<>();
+        Instant next = null;
+        for (Pending p : pending.values()) {
+            if (!p.nextAttemptAt.isAfter(now)) {
+                if (due.size() < limit)
+                    due.add(p.message);
+            } else if (next == null || p.nextAttemptAt.isBefore(next)) {
+                next = p.nextAttemptAt;
+            }
+        }
+        if (!due.isEmpty())
+            return due;
+        long waitMillis = props.outbox().idleTimeout().toMillis();
+        if (next != null)
+            waitMillis = Math.min(waitMillis, Duration.between(now, next).toMillis());
+        if (running)
+            wait(Math.max(1, waitMillis));
+        return List.of();
+    }
+
+    // 계정별로 묶어 계정마다 같은 SMTP 연결로 보낸다
+    private void deliver(List<OutboxMessage> batch) {
+        Map<String, List<OutboxMessage>> byAccount = new LinkedHashMap<>();
+        batch.forEach(m -> byAccount.computeIfAbsent(m.account(), a -> new ArrayList<>()).add(m));
+        byAccount.forEach((account, messages) -> {
+            JavaMailSender sender = senders.get(account);
+            for (OutboxMessage m : messages) {
+                try {
+                    if (sender == null)
+                        throw new IllegalStateException("등록되지 않은 발송 계정: " + account);
+                    send(account, sender, m);
+                    sent(m);
+                } catch (Exception e) {
+                    close(account);
+                    failed(m, e);
+                }
+            }
+        });
+        synchronized (this) {
+            if (pending.isEmpty() && appendedSinceCompact >= COMPACT_AFTER)
+                compact();
+        }
+    }
+
+    private void send(String account, JavaMailSender sender, OutboxMessage m) throws MessagingException {
+        // 실제 SMTP 발송기만 연결을 직접 관리한다 (replay 발송기처럼 doSend 를 바꾼 하위 클래스는 그대로 위임)
+        if (sender.getClass() != JavaMailSenderImpl.class) {
+            Session session = sender instanceof JavaMailSenderImpl impl ? impl.getSession()
+                    : Session.getInstance(new Properties());
+            sender.send(mime(session, m));
+            return;
+        }
+        JavaMailSenderImpl impl = (JavaMailSenderImpl) sender;
+        MimeMessage msg = mime(impl.getSession(), m);
+        msg.saveChanges();
+        Connection c = connection(account, impl);
+        c.transport.sendMessage(msg, msg.getAllRecipients());
+        c.lastUsedNanos = System.nanoTime();
+    }
+
+    private Connection connection(String account, JavaMailSenderImpl impl) throws MessagingException {
+        Connection c = connections.get(account);
+        if (c != null && c.transport.isConnected())
+            return c;
+        if (c != null)
+            close(account);
+        Transport t = impl.getSession().getTransport(impl.getProtocol() == null ? "smtp" : impl.getProtocol());
+        t.connect(impl.getHost(), impl.getPort(), impl.getUsername(), impl.getPassword());
+        c = new Connection(t);
+        connections.put(account, c);
+        return c;
+    }
+
+    // 서버가 끊기 전에 유휴 연결을 먼저 닫는다
+    private void closeIdle() {
+        long idleNanos = props.outbox().idleTimeout().toNanos();
+        long now = System.nanoTime();
+        connections.entrySet().stream()
+                .filter(e -> now - e.getValue().lastUsedNanos >= idleNanos)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(this::close);
+    }
+
+    private void close(String account) {
+        Connection c = connections.remove(account);
+        if (c == null)
+            return;
+        try {
+            c.transport.close();
+        } catch (MessagingException | RuntimeException ignored) {
+            // 이미 끊긴 연결
+        }
+    }
+
+    private synchronized void sent(OutboxMessage m) {
+        Instant now = Instant.now();
+        pending.remove(m.key());
+        sent.put(m.key(), now);
+        append(new OutboxRecord(OutboxRecord.SENT, m.key(), null, now, 0, null));
+        notifyAll();
+        meters.counter("outbox.delivery", "outcome", "sent").increment();
+        log.info("요약 메일 발송: {} → {}", m.subject(), m.to());
+    }
+
+    private synchronized void failed(OutboxMessage m, Exception e) {
+        Pending p = pending.get(m.key());
+        if (p == null)
+            return;
+        p.attempts++;
+        if (p.attempts >= props.outbox().maxAttempts()) {
+            pending.remove(m.key());
+            append(new OutboxRecord(OutboxRecord.DEAD, m.key(), null, Instant.now(), p.attempts, e.toString()));
+            notifyAll();
+            meters.counter("outbox.delivery", "outcome", "dead").increment();
+            log.error("요약 메일 발송 포기 ({}회 실패): {} / {}", p.attempts, m.subject(), e.toString());
+            return;
+        }
+        Duration backoff = props.outbox().retryBackoff().multipliedBy(1L << Math.min(p.attempts - 1, 20));
+        if (backoff.compareTo(MAX_BACKOFF) > 0)
+            backoff = MAX_BACKOFF;
+        p.nextAttemptAt = Instant.now().plus(backoff);
+        append(new OutboxRecord(OutboxRecord.RETRY, m.key(), null, p.nextAttemptAt, p.attempts, e.toString()));
+        meters.counter("outbox.delivery", "outcome", "retry").increment();
+        log.warn("요약 메일 발송 실패 ({}회), {} 후 재시도: {}", p.attempts, backoff, e.toString());
+    }
+
+    private void append(OutboxRecord r) {
+        store.append(r);
+        appendedSinceCompact++;
+    }
+
+    // 대기 중인 메일과 보관 기간 안의 SENT 만 남겨 로그를 다시 쓴다
+    private void compact() {
+        List<OutboxRecord> records = new ArrayList<>();
+        sent.forEach((key, at) -> records.add(new OutboxRecord(OutboxRecord.SENT, key, null, at, 0, null)));
+        pending.values().forEach(p -> {
+            records.add(new OutboxRecord(OutboxRecord.ENQUEUED, p.message.key(), p.message,
+                    p.message.createdAt(), 0, null));
+            if (p.attempts > 0)
+                records.add(new OutboxRecord(OutboxRecord.RETRY, p.message.key(), null, p.nextAttemptAt,
+                        p.attempts, null));
+        });
+        store.rewrite(records);
+        appendedSinceCompact = 0;
+    }
+
+    private static MimeMessage mime(Session session, OutboxMessage m) throws MessagingException {
+        String messageId = "<" + m.key() + "@" + MESSAGE_ID_DOMAIN + ">";
+        MimeMessage msg = new MimeMessage(session) {
+            @Override
+            protected void updateMessageID() throws MessagingException {
+                setHeader("Message-ID", messageId);
+            }
+        };
+        var helper = new MimeMessageHelper(msg, false, "UTF-8");
+        helper.setFrom(m.from());
+        helper.setTo(m.to().toArray(String[]::new));
+        helper.setSubject(m.subject());
+        helper.setSentDate(Date.from(m.createdAt()));
+        helper.setText(m.body(), false);
+        if (m.date() != null)
+            msg.setHeader(SUMMARY_DATE_HEADER, m.date().toString());
+        return msg;
+    }
+
+    private static String accountKey(String account) {
+        return account == null ? "" : account;
+    }
+
+    static String key(String account, String[] to, String subject, String body) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] { accountKey(account), String.join(",", to), subject, body }) {
+                sha.update(part.getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(sha.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ramsbaby.preply.component;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Preply 메일 유형별 파서 템플릿.
+ * 새 메일 유형은 구현체를 추가하고 {@link PreplyMailParser#TEMPLATES}에 등록한다.
+ * (IMAP 검색 제목 조건도 여기서 모은다.)
+ */
+public interface MailTemplate<T> {
+
+    String name();
+
+    // IMAP SUBJECT 검색에 쓰는 키워드 (어느 하나라도 포함되면 이 템플릿 대상)
+    List<String> subjectKeywords();
+
+    default boolean accepts(String subject) {
+        return subject != null && subjectKeywords().stream().anyMatch(subject::contains);
+    }
+
+    /**
+     * @param subject    메일 제목
+     * @param text       {@link PreplyMailParser#toText}로 정규화한 본문
+     * @param receivedAt 메일 수신 시각(KST)
+     */
+    Optional<T> parse(String subject, String text, ZonedDateTime receivedAt);
+}
@@ -0,0 +1,29 @@
+package com.ramsbaby.preply.component;
+
+import java.time.LocalDate;
+
+import com.ramsbaby.preply.dto.MailboxSnapshot;
+
+/**
+ * 단가/취소 보상 메일 소스. 운영은 IMAP({@link PreplyRateCacheLoader}),
+ * replay 프로필은 로컬 .eml/mbox({@link ReplayMailboxSource}).
+ */
+public interface MailboxSource {
+
+    // 단계 제한 시간이 시작되기 전에 잡아 두는 자원(IMAP 서버별 연결 수 등). 쓰는 쪽은 한 번만 닫는다.
+    interface Permit extends AutoCloseable {
+        Permit NONE = () -> {
+        };
+
+        @Override
+        void close();
+    }
+
+    // date: 요약 기준일. 취소 보상은 그날 레슨 것만 담는다.
+    MailboxSnapshot loadSnapshot(LocalDate date);
+
+    // loadSnapshot 전에 기다려야 하는 자원이 있으면 여기서 기다린다 (기본: 없음)
+    default Permit acquire() {
+        return Permit.NONE;
+    }
+}
@@ -0,0 +1,198 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.mail.internet.SharedInputStream;
+
+/**
+ * 디스크의 메일 코퍼스(.eml 디렉터리 또는 mbox 파일)를 메모리 매핑으로 읽는다.
+ * 메일 한 통은 매핑된 버퍼의 slice 이고, {@link BufferInputStream} 이 SharedInputStream 이라
+ * MimeMessage/MimeMultipart 가 본문을 복사하지 않고 같은 버퍼를 다시 slice 해서 쓴다.
+ */
+final class MappedMailCorpus {
+
+    // mbox 를 한 번에 매핑하는 크기. 이보다 큰 메일을 만나면 두 배씩 늘린다.
+    private static final long MBOX_CHUNK = 256L * 1024 * 1024;
+    private static final byte[] FROM_ = { 'F', 'r', 'o', 'm', ' ' };
+
+    private MappedMailCorpus() {
+    }
+
+    /**
+     * path 가 디렉터리면 하위의 *.eml 을, 파일이면 mbox 로 보고 메일 버퍼 스트림을 돌려준다.
+     * .eml 은 소비하는 쪽(병렬 워커)에서 지연 매핑하므로 파일 수가 많아도 매핑이 한꺼번에 쌓이지 않는다.
+     */
+    static Stream<ByteBuffer> open(Path path) throws IOException {
+        if (Files.isDirectory(path))
+            return emlFiles(path).parallelStream().map(MappedMailCorpus::mapUnchecked);
+        if (Files.isRegularFile(path))
+            return mbox(path).parallelStream();
+        throw new IllegalStateException("리플레이 메일 경로가 없습니다: " + path.toAbsolutePath());
+    }
+
+    static List<Path> emlFiles(Path dir) throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            return s.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().toLowerCase(java.util.Locale.ROOT).endsWith(".eml"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 채널을 닫아도 매핑은 버퍼가 GC 될 때까지 유효하다
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    private static ByteBuffer mapUnchecked(Path file) {
+        try {
+            return map(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("메일 파일 매핑 실패: " + file, e);
+        }
+    }
+
+    /**
+     * mbox 를 청크 단위로 매핑하며 줄 머리의 "From " 구분선으로 메일을 자른다.
+     * 청크 끝에 걸친 메일은 다음 청크를 그 메일 시작 위치부터 다시 매핑해 온전한 slice 로 만든다.
+     * 본문 속 ">From " 이스케이프(mboxrd)는 되돌리지 않는다. 파싱 대상 라벨에는 영향이 없다.
+     */
+    static List<ByteBuffer> mbox(Path file) throws IOException {
+        List<ByteBuffer> out = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long base = 0;
+            long chunk = MBOX_CHUNK;
+            while (base < size) {
+                int len = (int) Math.min(size - base, chunk);
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, base, len);
+                int msgStart = 0;
+                for (int p = nextFromLine(map, 1, len); p >= 0; p = nextFromLine(map, p + 1, len)) {
+                    addMessage(out, map, msgStart, p);
+                    msgStart = p;
+                }
+                if (base + len == size) {
+                    addMessage(out, map, msgStart, len);
+                    break;
+                }
+                if (msgStart == 0) {
+                    if (chunk >= Integer.MAX_VALUE)
+                        throw new IOException("mbox 메일 한 통이 너무 큽니다: offset=" + base);
+                    chunk = Math.min(chunk * 2, Integer.MAX_VALUE);
+                }
+                base += msgStart;
+            }
+        }
+        return out;
+    }
+
+    // from 이후 첫 "\nFrom " 의 'F' 위치 (없으면 -1)
+    private static int nextFromLine(ByteBuffer b, int from, int limit) {
+        for (int p = Math.max(from, 1); p + FROM_.length <= limit; p++) {
+            if (b.get(p - 1) != '\n' || b.get(p) != 'F')
+                continue;
+            if (b.get(p + 1) == 'r' && b.get(p + 2) == 'o' && b.get(p + 3) == 'm' && b.get(p + 4) == ' ')
+                return p;
+        }
+        return -1;
+    }
+
+    // [start, end) 에서 "From " 봉투 줄을 떼어낸 나머지를 메일 한 통으로 추가
+    private static void addMessage(List<ByteBuffer> out, ByteBuffer map, int start, int end) {
+        int from = start;
+        if (startsWithFrom(map, start, end)) {
+            while (from < end && map.get(from) != '\n')
+                from++;
+            from++;
+        }
+        if (from < end)
+            out.add(map.slice(from, end - from));
+    }
+
+    private static boolean startsWithFrom(ByteBuffer b, int start, int end) {
+        if (end - start < FROM_.length)
+            return false;
+        for (int i = 0; i < FROM_.length; i++) {
+            if (b.get(start + i) != FROM_[i])
+                return false;
+        }
+        return true;
+    }
+
+    /** ByteBuffer 위의 SharedInputStream. 위치는 이 스트림의 시작 기준이다. */
+    static final class BufferInputStream extends InputStream implements SharedInputStream {
+        private final ByteBuffer buf;
+
+        BufferInputStream(ByteBuffer buf) {
+            this.buf = buf.slice();
+            this.buf.mark();
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buf.hasRemaining())
+                return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+            buf.position(buf.position() + k);
+            return k;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            buf.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buf.reset();
+        }
+
+        @Override
+        public long getPosition() {
+            return buf.position();
+        }
+
+        @Override
+        public InputStream newStream(long start, long end) {
+            int to = end < 0 ? buf.limit() : (int) end;
+            return new BufferInputStream(buf.slice((int) start, to - (int) start));
+        }
+    }
+}
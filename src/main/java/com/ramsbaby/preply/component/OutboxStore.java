@@ -0,0 +1,89 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.OutboxRecord;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메일 아웃박스 로그를 append-only JSON Lines 파일(outbox.jsonl)로 보관한다.
+ * - 레코드마다 DSYNC 로 디스크까지 내려 쓰므로, 기록이 끝난 요약은 프로세스가 죽어도 남는다.
+ * - 중간에 죽어 마지막 줄이 깨졌으면 그 줄만 버린다.
+ * - 압축(rewrite)은 임시 파일 → 원자적 이동으로 처리한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxStore {
+
+    private static final String FILE_NAME = "outbox.jsonl";
+
+    private final AppProps props;
+    private final ObjectMapper om;
+
+    public List<OutboxRecord> load() {
+        Path file = path();
+        List<OutboxRecord> out = new ArrayList<>();
+        if (!Files.isRegularFile(file))
+            return out;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank())
+                    continue;
+                try {
+                    out.add(om.readValue(line, OutboxRecord.class));
+                } catch (IOException e) {
+                    log.warn("아웃박스 레코드 읽기 실패, 건너뜁니다: {}", e.toString());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("아웃박스 읽기 실패: {}", e.toString());
+        }
+        return out;
+    }
+
+    // 기록 실패는 경고만 남긴다 (메모리의 대기열로는 계속 발송)
+    public void append(OutboxRecord record) {
+        Path file = path();
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, om.writeValueAsString(record) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            log.warn("아웃박스 기록 실패 (key={}): {}", record.key(), e.toString());
+        }
+    }
+
+    public void rewrite(List<OutboxRecord> records) {
+        Path file = path();
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+            StringBuilder sb = new StringBuilder();
+            for (OutboxRecord r : records)
+                sb.append(om.writeValueAsString(r)).append('\n');
+            Files.writeString(tmp, sb, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("아웃박스 압축 실패: {}", e.toString());
+        }
+    }
+
+    private Path path() {
+        return Path.of(props.storage().dir()).toAbsolutePath().resolve(FILE_NAME);
+    }
+}
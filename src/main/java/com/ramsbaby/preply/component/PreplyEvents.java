@@ -0,0 +1,149 @@
+package com.ramsbaby.preply.component;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 요약 파이프라인의 JFR(JDK Flight Recorder) 이벤트.
+ * 녹화 중이 아니면 begin/commit 은 사실상 비용이 없고, 스택 트레이스는 남기지 않는다.
+ * 실행 1건 녹화와 리포트는 {@link RunProfiler} 참고.
+ */
+final class PreplyEvents {
+
+    static final String PREFIX = "preply.";
+
+    private PreplyEvents() {
+    }
+
+    @Name(PREFIX + "SummaryStage")
+    @Label("Summary Stage")
+    @Category({ "Preply", "Summary" })
+    @StackTrace(false)
+    static final class SummaryStage extends Event {
+        @Label("Stage")
+        String stage;
+    }
+
+    // 시작된 단계 이벤트 (끝날 때 commit)
+    static SummaryStage beginStage(String stage) {
+        SummaryStage e = new SummaryStage();
+        e.stage = stage;
+        e.begin();
+        return e;
+    }
+
+    @Name(PREFIX + "MailScan")
+    @Label("Mailbox Scan")
+    @Category({ "Preply", "Mail" })
+    @StackTrace(false)
+    static final class MailScan extends Event {
+        @Label("Full Rebuild")
+        @Description("단가 인덱스 없이 조회 기간 전체를 검색했는지")
+        boolean fullRebuild;
+
+        @Label("Matched Messages")
+        int matched;
+
+        @Label("Students")
+        int students;
+
+        @Label("Compensations")
+        int compensations;
+    }
+
+    @Name(PREFIX + "MailParse")
+    @Label("Mail Parse")
+    @Category({ "Preply", "Mail" })
+    @Description("메일 1통의 본문 읽기 + 템플릿 파싱")
+    @StackTrace(false)
+    static final class MailParse extends Event {
+        @Label("Template")
+        String template;
+
+        @Label("Body Length")
+        @Description("디코딩한 본문 문자 수")
+        int bodyLength;
+
+        @Label("Outcome")
+        @Description("parsed/ignored/failed")
+        String outcome;
+    }
+
+    @Name(PREFIX + "MailBodyFetch")
+    @Label("Mail Body Fetch")
+    @Category({ "Preply", "Mail" })
+    @Description("IMAP 본문 섹션 부분 fetch")
+    @StackTrace(false)
+    static final class MailBodyFetch extends Event {
+        @Label("Section")
+        String section;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Truncated")
+        boolean truncated;
+    }
+
+    @Name(PREFIX + "CalendarList")
+    @Label("Calendar List")
+    @Category({ "Preply", "Calendar" })
+    @Description("Calendar events.list 호출(전 페이지)")
+    @StackTrace(false)
+    static final class CalendarList extends Event {
+        @Label("Mode")
+        @Description("window/full/incremental")
+        String mode;
+
+        @Label("Pages")
+        int pages;
+
+        @Label("Items")
+        int items;
+
+        @Label("HTTP Status")
+        int httpStatus;
+    }
+
+    @Name(PREFIX + "FxProviderCall")
+    @Label("FX Provider Call")
+    @Category({ "Preply", "FX" })
+    @StackTrace(false)
+    static final class FxProviderCall extends Event {
+        @Label("Provider")
+        String provider;
+
+        @Label("HTTP Status")
+        @Description("응답 전에 실패하면 0")
+        int httpStatus;
+
+        @Label("Response Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name(PREFIX + "FxRefresh")
+    @Label("FX Refresh")
+    @Category({ "Preply", "FX" })
+    @Description("제공자 헤징 호출로 환율표 1회 갱신")
+    @StackTrace(false)
+    static final class FxRefresh extends Event {
+        @Label("Source")
+        String source;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Currencies")
+        int currencies;
+    }
+}
@@ -0,0 +1,246 @@
+package com.ramsbaby.preply.component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.ramsbaby.preply.dto.Compensation;
+import com.ramsbaby.preply.dto.Money;
+import com.ramsbaby.preply.dto.RateEntry;
+
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+
+/**
+ * Preply 메일 파서 엔진.
+ * 메일 유형별 템플릿의 정규식은 모두 클래스 로딩 시 한 번만 컴파일되고,
+ * 본문은 {@link HtmlText}로 DOM 없이 한 번에 텍스트화/정규화한다.
+ */
+public final class PreplyMailParser {
+
+    private PreplyMailParser() {
+    }
+
+    // 수수료 차감 후 실수령 비율
+    private static final BigDecimal PAYOUT_RATIO = new BigDecimal("0.82");
+
+    public static final MailTemplate<RateEntry> BOOKING = new BookingTemplate();
+    public static final MailTemplate<Compensation> CANCELLATION_COMPENSATION = new CancellationTemplate();
+    public static final List<MailTemplate<?>> TEMPLATES = List.of(BOOKING, CANCELLATION_COMPENSATION);
+
+    // HTML/평문 본문 → 정규화된 한 줄 텍스트
+    public static String toText(CharSequence body) {
+        return HtmlText.extract(body);
+    }
+
+    // 로컬 MIME 파트에서 본문 추출: HTML 우선, 없으면 text/plain (IMAP 부분 fetch 는 ImapBodyFetcher)
+    public static String bodyOf(Part p) throws Exception {
+        return extractHtml(p).orElseGet(() -> {
+            try {
+                return extractText(p).orElse("");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static Optional<String> extractHtml(Part p) throws Exception {
+        if (p.isMimeType("text/html"))
+            return Optional.of((String) p.getContent());
+        if (p.isMimeType("multipart/*")) {
+            Multipart mp = (Multipart) p.getContent();
+            for (int i = 0; i < mp.getCount(); i++) {
+                var r = extractHtml(mp.getBodyPart(i));
+                if (r.isPresent())
+                    return r;
+            }
+        }
+        if (p.isMimeType("message/rfc822"))
+            return extractHtml((Part) p.getContent());
+        return Optional.empty();
+    }
+
+    private static Optional<String> extractText(Part p) throws Exception {
+        if (p.isMimeType("text/plain"))
+            return Optional.of((String) p.getContent());
+        if (p.isMimeType("multipart/*")) {
+            Multipart mp = (Multipart) p.getContent();
+            for (int i = 0; i < mp.getCount(); i++) {
+                var r = extractText(mp.getBodyPart(i));
+                if (r.isPresent())
+                    return r;
+            }
+        }
+        if (p.isMimeType("message/rfc822"))
+            return extractText((Part) p.getContent());
+        return Optional.empty();
+    }
+
+    /** 예약 메일(국/영): "학생: {이름} … 비용: {금액}" */
+    private static final class BookingTemplate implements MailTemplate<RateEntry> {
+        // 학생 이름 (KO/EN 라벨 모두 지원, 다음 라벨 직전까지만 비탐욕 캡처)
+        private static final Pattern STU_KO = Pattern.compile(
+                "학생\\s*[:：]\\s*(.+?)\\s*(?=(레슨\\s*시간|Lesson\\s*time|비용|Price)\\s*[:：]|$)",
+                Pattern.CASE_INSENSITIVE);
+        private static final Pattern STU_EN = Pattern.compile(
+                "Student\\s*[:：]\\s*(.+?)\\s*(?=(Lesson\\s*time|레슨\\s*시간|Price|비용)\\s*[:：]|$)",
+                Pattern.CASE_INSENSITIVE);
+        // 금액/통화 (다양한 표기 대응: 라벨/콜론 선택, 기호 앞뒤, 통화 코드/기호)
+        private static final Pattern PRICE = Pattern.compile(
+                "(?:비용|Price)\\s*[:：]?\\s*(\\$|USD|₩|KRW)?\\s*([0-9][0-9,]*\\.?[0-9]{0,2})\\s*(USD|KRW|\\$|₩)?",
+                Pattern.CASE_INSENSITIVE);
+        private static final Pattern USD_INLINE = Pattern.compile("\\$\\s*([0-9][0-9,]*\\.?[0-9]{0,2})");
+        private static final Pattern AMOUNT_CODE = Pattern.compile(
+                "([0-9][0-9,]*\\.?[0-9]{0,2})\\s*(USD|KRW)", Pattern.CASE_INSENSITIVE);
+
+        @Override
+        public String name() {
+            return "booking";
+        }
+
+        @Override
+        public List<String> subjectKeywords() {
+            return List.of("예약했어요", "scheduled a new lesson");
+        }
+
+        @Override
+        public Optional<RateEntry> parse(String subject, String text, ZonedDateTime receivedAt) {
+            String student = firstMatch(text, STU_KO, STU_EN);
+            if (student == null || student.isBlank())
+                return Optional.empty();
+
+            String num = null;
+            String curRaw = null;
+            Matcher mp = PRICE.matcher(text);
+            if (mp.find()) {
+                num = mp.group(2);
+                curRaw = mp.group(1) != null && !mp.group(1).isBlank() ? mp.group(1) : mp.group(3);
+            }
+            if (num == null) {
+                Matcher m1 = USD_INLINE.matcher(text);
+                if (m1.find()) {
+                    num = m1.group(1);
+                    curRaw = "$";
+                }
+            }
+            if (num == null) {
+                Matcher m2 = AMOUNT_CODE.matcher(text);
+                if (m2.find()) {
+                    num = m2.group(1);
+                    curRaw = m2.group(2);
+                }
+            }
+            if (num == null)
+                return Optional.empty();
+
+            BigDecimal amount = parseAmount(num).multiply(PAYOUT_RATIO);
+            return Optional.of(new RateEntry(student.trim(), new Money(amount, normalizeCurrency(curRaw)), receivedAt));
+        }
+    }
+
+    /**
+     * 12시간 이내 취소되어 보상 지급되는 메일.
+     * - 제목에 "수업을 취소했습니다" 포함 (예: "Roth 학생이 수업을 취소했습니다")
+     * - 본문에 "예정된 시작 시간 12시간 전에 취소" 및 "지불해 드립니다" 포함
+     * - 본문에 "레슨: {M}월 {D}일" 포함 (연도는 수신일 기준으로 보정)
+     * - 금액/통화(예: 22.00 $, 22 USD 등) 추출
+     */
+    private static final class CancellationTemplate implements MailTemplate<Compensation> {
+        private static final Pattern LESSON_DATE = Pattern.compile("레슨\\s*[:：]\\s*(\\d{1,2})월\\s*(\\d{1,2})일");
+        private static final Pattern STUDENT_BODY = Pattern.compile(
+                "학생\\s*[:：]\\s*(.+?)\\s*(?=(레슨|Lesson|비용|Price)\\s*[:：]|$)",
+                Pattern.CASE_INSENSITIVE);
+        private static final Pattern SUBJECT_STUDENT = Pattern.compile("(.+?)\\s*학생이\\s*수업을\\s*취소했습니다");
+        private static final Pattern USD_INLINE = Pattern.compile("\\$\\s*([0-9][0-9,]*\\.?[0-9]{0,2})");
+        private static final Pattern AMOUNT_CURRENCY = Pattern.compile(
+                "([0-9][0-9,]*\\.?[0-9]{0,2})\\s*(USD|KRW|\\$|₩)", Pattern.CASE_INSENSITIVE);
+
+        @Override
+        public String name() {
+            return "cancellation-compensation";
+        }
+
+        @Override
+        public List<String> subjectKeywords() {
+            return List.of("수업을 취소했습니다");
+        }
+
+        @Override
+        public Optional<Compensation> parse(String subject, String text, ZonedDateTime receivedAt) {
+            if (!(text.contains("예정된 시작 시간 12시간 전에 취소") && text.contains("지불해 드립니다")))
+                return Optional.empty();
+
+            LocalDate lessonDate = lessonDate(text, receivedAt.toLocalDate());
+            if (lessonDate == null)
+                return Optional.empty();
+
+            String student = firstMatch(text, STUDENT_BODY);
+            if (student == null && subject != null)
+                student = firstMatch(subject, SUBJECT_STUDENT);
+            if (student == null || student.isBlank())
+                return Optional.empty();
+
+            String num;
+            String curRaw;
+            Matcher mUsd = USD_INLINE.matcher(text);
+            if (mUsd.find()) {
+                num = mUsd.group(1);
+                curRaw = "$";
+            } else {
+                Matcher mCur = AMOUNT_CURRENCY.matcher(text);
+                if (!mCur.find())
+                    return Optional.empty();
+                num = mCur.group(1);
+                curRaw = mCur.group(2);
+            }
+
+            BigDecimal amount = parseAmount(num).multiply(PAYOUT_RATIO);
+            return Optional.of(new Compensation(PreplyRateCacheLoader.normalize(student.trim()),
+                    new Money(amount, normalizeCurrency(curRaw)), lessonDate, receivedAt));
+        }
+
+        // 본문에는 월/일만 있으므로 수신일과 가장 가까운 연도로 보정 (연말/연초 경계)
+        private static LocalDate lessonDate(String text, LocalDate received) {
+            Matcher md = LESSON_DATE.matcher(text);
+            if (!md.find())
+                return null;
+            int mm = Integer.parseInt(md.group(1));
+            int dd = Integer.parseInt(md.group(2));
+            LocalDate d = LocalDate.of(received.getYear(), mm, dd);
+            if (d.isBefore(received.minusMonths(6)))
+                return d.plusYears(1);
+            if (d.isAfter(received.plusMonths(6)))
+                return d.minusYears(1);
+            return d;
+        }
+    }
+
+    private static String firstMatch(String s, Pattern... ps) {
+        for (Pattern p : ps) {
+            Matcher m = p.matcher(s);
+            if (m.find())
+                return m.group(1);
+        }
+        return null;
+    }
+
+    private static BigDecimal parseAmount(String num) {
+        return new BigDecimal(num.indexOf(',') < 0 ? num : num.replace(",", ""));
+    }
+
+    static String normalizeCurrency(String rawCurrency) {
+        if (rawCurrency == null || rawCurrency.isBlank()) {
+            return "USD";
+        }
+        return switch (rawCurrency) {
+            case "$", "USD", "usd" -> "USD";
+            case "₩", "KRW", "krw" -> "KRW";
+            default -> rawCurrency.toUpperCase(Locale.ROOT);
+        };
+    }
+}
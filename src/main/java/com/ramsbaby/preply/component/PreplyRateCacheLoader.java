@@ -1,61 +1,115 @@
 package com.ramsbaby.preply.component;
 
-import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
-// import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
-import java.util.regex.Matcher;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.Compensation;
+import com.ramsbaby.preply.dto.MailboxSnapshot;
 import com.ramsbaby.preply.dto.Money;
 import com.ramsbaby.preply.dto.RateEntry;
+import com.ramsbaby.preply.dto.RateIndex;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.FetchProfile;
 import jakarta.mail.Folder;
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
-import jakarta.mail.Multipart;
-import jakarta.mail.Part;
 import jakarta.mail.Session;
 import jakarta.mail.Store;
-// import jakarta.mail.search.AndTerm;
-// import jakarta.mail.search.ComparisonTerm;
+import jakarta.mail.UIDFolder;
+import jakarta.mail.search.AndTerm;
+import jakarta.mail.search.ComparisonTerm;
 import jakarta.mail.search.OrTerm;
-// import jakarta.mail.search.ReceivedDateTerm;
+import jakarta.mail.search.ReceivedDateTerm;
 import jakarta.mail.search.SearchTerm;
+import jakarta.mail.search.SentDateTerm;
+import jakarta.mail.search.SubjectTerm;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Profile("!replay")
 @RequiredArgsConstructor
 @Slf4j
-public class PreplyRateCacheLoader {
+public class PreplyRateCacheLoader implements MailboxSource {
 
     private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    // 등록된 템플릿(예약 국/영, 취소 보상)의 제목 키워드를 OR 로 묶어 한 번에 검색
+    private static final SearchTerm PREPLY_SUBJECT = new OrTerm(PreplyMailParser.TEMPLATES.stream()
+            .flatMap(t -> t.subjectKeywords().stream())
+            .map(SubjectTerm::new)
+            .toArray(SearchTerm[]::new));
+
+    private static final Pattern P_ALIAS = Pattern.compile("\\s*\\(.*?\\)\\s*");
+    private static final Pattern P_LESSON_SUFFIX = Pattern.compile("\\s+-\\s*Preply lesson\\s*$");
+    private static final Pattern P_SPACES = Pattern.compile("\\s+");
+
     private final AppProps props;
+    private final RateIndexStore indexStore;
+    private final Clock clock;
+    private final MeterRegistry meters;
+
+    // 마지막 스캔 결과 (게이지용)
+    private final AtomicInteger indexedStudents = new AtomicInteger();
+    private final AtomicInteger indexedCompensations = new AtomicInteger();
+    private volatile Instant lastScanAt;
+
+    private volatile Cached cache;
+    private volatile boolean pushConnected;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("rate.index.students", indexedStudents, AtomicInteger::get)
+                .description("단가 인덱스의 학생 수").register(meters);
+        Gauge.builder("rate.index.compensations", indexedCompensations, AtomicInteger::get)
+                .description("단가 인덱스의 취소 보상 건수").register(meters);
+        TimeGauge.builder("rate.index.age", this, TimeUnit.SECONDS,
+                l -> l.lastScanAt == null ? Double.NaN : Duration.between(l.lastScanAt, Instant.now()).toSeconds())
+                .description("마지막 메일함 스캔 이후 경과 시간").register(meters);
+    }
 
     // 이름 정규화(캘린더 매칭용): 괄호 alias 제거, 접미사/여백 정리, 케이스-인센시티브 키
     public static String normalize(String raw) {
         if (raw == null)
             return "";
         // 괄호 alias / 접미사 제거
-        String s = raw.replaceAll("\\s*\\(.*?\\)\\s*", " ")
-                .replaceAll("\\s+-\\s*Preply lesson\\s*$", "")
+        String s = P_ALIAS.matcher(raw).replaceAll(" ");
+        s = P_LESSON_SUFFIX.matcher(s).replaceAll("")
                 .replace(".", " ") // 성 이니셜의 점 제거: "S." -> "S"
                 .trim();
-        s = s.replaceAll("\\s+", " ").toLowerCase(java.util.Locale.ROOT);
+        s = P_SPACES.matcher(s).replaceAll(" ").toLowerCase(java.util.Locale.ROOT);
 
         // 토큰 기준 후처리: "camila s" 처럼 두 번째 토큰이 1글자면 버림
         String[] t = s.split(" ");
@@ -65,230 +119,379 @@ public class PreplyRateCacheLoader {
         return s;
     }
 
-    private static String cleanText(String s) {
-        if (s == null)
-            return "";
-        return s
-                .replace('\u00A0', ' ') // NBSP → space
-                .replace('\u202F', ' ') // NNBSP → space
-                .replaceAll("[\\u200B\\u200C\\u200D\\uFEFF\\u2060\\u00AD]", "") // ZWSP/ZWJ/BOM/SHY 제거
-                .replaceAll("[\\s\\u0000-\\u001F]+", " ") // 제어문자/여러 공백 → 한 칸
-                .trim();
-    }
-
-    private static String firstMatch(String s, Pattern... ps) {
-        for (Pattern p : ps) {
-            Matcher m = p.matcher(s);
-            if (m.find())
-                return m.group(1);
+    /**
+     * 기준일의 단가/취소 보상 스냅샷. (인덱스는 lookBackDays 안의 메일만 담으므로 그 안의 날짜만 의미가 있다)
+     * IMAP IDLE 리스너({@link ImapIdleListener})가 연결되어 있으면 메일이 올 때마다 갱신된 메모리 캐시에서
+     * 바로 돌려주고, 아니면 INBOX 를 열어 새 UID 만 따라잡은 뒤 돌려준다.
+     */
+    @Override
+    public MailboxSnapshot loadSnapshot(LocalDate date) {
+        Cached c = cache;
+        if (pushConnected && c != null)
+            return c.snapshot(date);
+        try {
+            withInbox(inbox -> {
+                catchUp(inbox);
+                return null;
+            });
+        } catch (MessagingException e) {
+            throw new IllegalStateException("IMAP 읽기 실패", e);
         }
-        return null;
+        return cache.snapshot(date);
     }
 
-    private static String normalizeCurrency(String rawCurrency) {
-        if (rawCurrency == null || rawCurrency.isBlank()) {
-            return "USD";
+    /**
+     * 열린 INBOX 에서 예약(단가) 메일과 취소 보상 메일을 함께 스캔해 인덱스와 메모리 캐시에 반영한다.
+     * 인덱스의 high-water mark 이후 UID 만 보므로, IDLE 재연결 후 끊긴 동안 도착한 메일도 여기서 따라잡는다.
+     */
+    synchronized void catchUp(Folder inbox) throws MessagingException {
+        PreplyEvents.MailScan event = new PreplyEvents.MailScan();
+        event.begin();
+        UIDFolder uids = (UIDFolder) inbox;
+
+        // 기간: lookBackDays ~ 내일 00:00
+        LocalDate today = LocalDate.now(clock.withZone(KST));
+        Date start = Date.from(today.minusDays(props.gcal().lookBackDays()).atStartOfDay(KST).toInstant());
+        Date end = Date.from(today.plusDays(1).atStartOfDay(KST).toInstant());
+
+        // 인덱스가 있고 UIDVALIDITY 가 같으면 high-water mark 이후 UID 만 본다
+        long uidValidity = uids.getUIDValidity();
+        long uidNext = uids.getUIDNext(); // 검색 전에 잡아둬야 그 사이 도착분을 놓치지 않음
+        RateIndex index = indexStore.load()
+                .filter(ix -> ix.version() == RateIndex.VERSION && ix.uidValidity() == uidValidity)
+                .orElse(null);
+        long lastUid = index == null ? 0 : index.highWaterUid();
+
+        SearchTerm term = searchTerm(start, end);
+        Message[] found;
+        if (index == null) {
+            log.info("단가 인덱스 전체 재구성 (uidValidity={})", uidValidity);
+            found = timed("search", () -> inbox.search(term));
+        } else {
+            found = timed("search", () -> {
+                Message[] fresh = uids.getMessagesByUID(lastUid + 1, UIDFolder.LASTUID);
+                return fresh.length == 0 ? fresh : inbox.search(term, fresh);
+            });
         }
-        return switch (rawCurrency) {
-            case "$", "USD", "usd" -> "USD";
-            case "₩", "KRW", "krw" -> "KRW";
-            default -> rawCurrency.toUpperCase(Locale.ROOT);
-        };
+
+        // 매칭 UID 만 남기고 검색으로 만들어진 Message 캐시는 버린 뒤, 고정 크기 UID 윈도우로 fetch/파싱
+        Message[] hits = found;
+        long[] matched = timed("search", () -> matchedUids(inbox, hits, lastUid));
+        found = null;
+        if (matched.length > 0)
+            release(inbox, uidValidity);
+        ScanResult scanned = scanWindows(inbox, matched, uidValidity, start, end);
+
+        Map<String, RateEntry> rates = index == null ? new HashMap<>() : new HashMap<>(index.rates());
+        List<Compensation> compensations = index == null ? new ArrayList<>()
+                : new ArrayList<>(index.compensations());
+        scanned.rates().values().forEach(re -> mergeRate(rates, re));
+        compensations.addAll(scanned.compensations());
+        long highWater = Math.max(lastUid, uidNext - 1);
+        for (long uid : matched)
+            highWater = Math.max(highWater, uid);
+
+        // 조회 기간을 벗어난 항목은 인덱스에서도 제외
+        rates.values().removeIf(re -> re.receivedAt().toInstant().isBefore(start.toInstant()));
+        compensations.removeIf(c -> c.receivedAt().toInstant().isBefore(start.toInstant()));
+        indexStore.save(new RateIndex(RateIndex.VERSION, uidValidity, highWater, rates, compensations));
+        cache = new Cached(rates, compensations);
+        indexedStudents.set(rates.size());
+        indexedCompensations.set(compensations.size());
+        lastScanAt = Instant.now();
+        event.fullRebuild = index == null;
+        event.matched = matched.length;
+        event.students = rates.size();
+        event.compensations = compensations.size();
+        event.commit();
+        log.info("단가 인덱스: 신규 {}건 검사, 학생 {}명, 취소 보상 {}건, highWaterUid={}",
+                matched.length, rates.size(), compensations.size(), highWater);
     }
 
-    // --------- Patterns & Functional Predicates (reuse across parsers) ---------
-    private static final Pattern P_LESSON_DATE = Pattern.compile("레슨\\s*[:：]\\s*(\\d{1,2})월\\s*(\\d{1,2})일");
-    private static final Pattern P_STUDENT_BODY = Pattern.compile(
-            "학생\\s*[:：]\\s*(.+?)\\s*(?=(레슨|Lesson|비용|Price)\\s*[:：]|$)",
-            Pattern.CASE_INSENSITIVE);
-    private static final Pattern P_SUBJECT_CANCEL_STUDENT = Pattern.compile("(.+?)\\s*학생이\\s*수업을\\s*취소했습니다");
-    private static final Pattern P_USD_INLINE = Pattern.compile("\\$\\s*([0-9][0-9,]*\\.?[0-9]{0,2})");
-    private static final Pattern P_AMOUNT_CURRENCY = Pattern.compile(
-            "([0-9][0-9,]*\\.?[0-9]{0,2})\\s*(USD|KRW|\\$|₩)", Pattern.CASE_INSENSITIVE);
+    // 메모리 캐시: 학생별 단가와 레슨 날짜별 취소 보상을 미리 만들어 두어 스냅샷 조회는 상수 시간
+    private record Cached(Map<String, Money> rateByStudent, Map<LocalDate, List<RateEntry>> compensationsByDate) {
+        Cached(Map<String, RateEntry> rates, List<Compensation> compensations) {
+            this(toRateByStudent(rates), compensations.stream().collect(Collectors.groupingBy(Compensation::lessonDate,
+                    Collectors.mapping(c -> new RateEntry(c.studentName(), c.money(), c.receivedAt()),
+                            Collectors.toUnmodifiableList()))));
+        }
 
-    private static final java.util.function.Predicate<String> IS_COMPENSATION_TEXT = t -> t
-            .contains("예정된 시작 시간 12시간 전에 취소") && t.contains("지불해 드립니다");
+        MailboxSnapshot snapshot(LocalDate today) {
+            return new MailboxSnapshot(rateByStudent, compensationsByDate.getOrDefault(today, List.of()));
+        }
+    }
 
-    public Map<String, Money> loadRates() {
+    private static Map<String, Money> toRateByStudent(Map<String, RateEntry> rates) {
         Map<String, Money> rateByStudent = new HashMap<>();
-        Properties p = new Properties();
-        p.put("mail.store.protocol", "imaps");
-        p.put("mail.imaps.host", props.mail().imap().host());
-        p.put("mail.imaps.port", String.valueOf(props.mail().imap().port()));
-        p.put("mail.imaps.ssl.enable", "true");
-        p.put("mail.mime.allowutf8", "true");
+        rates.forEach((key, re) -> rateByStudent.put(key, re.money()));
+        return Map.copyOf(rateByStudent);
+    }
 
-        Session session = Session.getInstance(p);
-        try (Store store = session.getStore("imaps")) {
-            store.connect(props.mail().user(), props.mail().pass());
-            Folder inbox = store.getFolder("INBOX");
-            inbox.open(Folder.READ_ONLY);
+    // IDLE 리스너 연결 상태. 끊겨 있으면 loadSnapshot 이 직접 따라잡는다.
+    void setPushConnected(boolean connected) {
+        pushConnected = connected;
+    }
 
-            // 기간: lookBackDays ~ 내일 00:00
-            LocalDate today = LocalDate.now(KST);
-            Date start = Date.from(today.minusDays(props.gcal().lookBackDays()).atStartOfDay(KST).toInstant());
-            Date end = Date.from(today.plusDays(1).atStartOfDay(KST).toInstant());
+    // 로그인한 IMAP Store (IDLE 리스너용 장기 연결)
+    Store connect() throws MessagingException {
+        Store store = Session.getInstance(imapProperties()).getStore("imaps");
+        timed("connect", () -> {
+            store.connect(props.mail().user(), props.mail().pass());
+            return null;
+        });
+        return store;
+    }
 
-            // 제목(국/영) 기준으로만 검색 후, 날짜 범위는 KST로 로컬 필터링
-            SearchTerm term = new OrTerm(
-                    new jakarta.mail.search.SubjectTerm("예약했어요"),
-                    new jakarta.mail.search.SubjectTerm("scheduled a new lesson"));
+    // 부분 스캔 결과 (윈도우/연결끼리 병합 가능)
+    record ScanResult(Map<String, RateEntry> rates, List<Compensation> compensations) {
+        static ScanResult empty() {
+            return new ScanResult(new HashMap<>(), new ArrayList<>());
+        }
 
-            Message[] found = inbox.search(term);
+        ScanResult merge(ScanResult other) {
+            other.rates().values().forEach(re -> mergeRate(rates, re));
+            compensations.addAll(other.compensations());
+            return this;
+        }
+    }
 
-            // 프리페치
-            FetchProfile fp = new FetchProfile();
-            fp.add(FetchProfile.Item.ENVELOPE);
-            fp.add(FetchProfile.Item.CONTENT_INFO);
-            inbox.fetch(found, fp);
+    // 최신 메일 우선(수신일이 더 최근이면 갱신)
+    static void mergeRate(Map<String, RateEntry> rates, RateEntry re) {
+        rates.merge(normalize(re.studentName()), re,
+                (prev, cur) -> cur.receivedAt().isBefore(prev.receivedAt()) ? prev : cur);
+    }
 
-            for (Message m : found) {
-                if (!isInRange(m, start, end))
-                    continue;
-                extractRate(m).ifPresent(re -> {
-                    String key = normalize(re.studentName());
-                    // 최신 메일 우선(수신일이 더 최근이면 갱신)
-                    Money prev = rateByStudent.get(key);
-                    if (prev == null)
-                        rateByStudent.put(key, re.money());
-                    else
-                        rateByStudent.put(key, re.money()); // 필요 시 통화 우선 규칙 추가
-                });
-            }
-            inbox.close(false);
-        } catch (MessagingException e) {
-            throw new IllegalStateException("IMAP 읽기 실패", e);
+    // 검색 결과의 UID 만 뽑는다. "UID n:*" 는 새 메일이 없어도 마지막 메일을 돌려주므로 lastUid 이하는 제외
+    private static long[] matchedUids(Folder folder, Message[] found, long lastUid) throws MessagingException {
+        UIDFolder uids = (UIDFolder) folder;
+        FetchProfile fp = new FetchProfile();
+        fp.add(UIDFolder.FetchProfileItem.UID);
+        folder.fetch(found, fp);
+        long[] out = new long[found.length];
+        int n = 0;
+        for (Message m : found) {
+            long uid = uids.getUID(m);
+            if (uid > lastUid)
+                out[n++] = uid;
         }
+        return Arrays.copyOf(out, n);
+    }
 
-        return rateByStudent;
+    /**
+     * 폴더를 닫았다 다시 열어 MessageCache(Message 객체와 envelope/bodystructure)를 버린다.
+     * 닫혀 있는 동안 UIDVALIDITY 가 바뀌었다면 남은 UID 는 의미가 없으므로 중단한다.
+     */
+    private static void release(Folder folder, long uidValidity) throws MessagingException {
+        folder.close(false);
+        folder.open(Folder.READ_ONLY);
+        if (((UIDFolder) folder).getUIDValidity() != uidValidity)
+            throw new MessagingException("스캔 중 UIDVALIDITY 변경: " + folder.getFullName());
     }
 
     /**
-     * 오늘(KST) 레슨이 12시간 이내 취소되어 보상 지급되는 메일을 파싱하여 금액을 반환한다.
-     * 조건:
-     * - 제목에 "수업을 취소했습니다" 포함 (예: "Roth 학생이 수업을 취소했습니다")
-     * - 본문에 "예정된 시작 시간 12시간 전에 취소" 및 "지불해 드립니다" 포함
-     * - 본문에 "레슨: {M}월 {D}일" 포함하고, 그 날짜가 오늘과 동일
-     * - 금액/통화(예: 22.00 $, 22 USD 등) 추출
+     * 매칭 UID 를 windowSize 개씩 잘라 윈도우 단위로 fetch/파싱하고, 윈도우마다 메시지 캐시를 비운다.
+     * 조회 기간(lookBackDays)이 길어져도 힙 사용량은 윈도우 크기에만 비례한다.
+     * parallelism 이 2 이상이면 윈도우 큐를 N 개 연결이 나눠 처리한다. 첫 연결은 이미 열린 연결을
+     * 재사용하므로 동시 로그인 수는 최대 N 이다. JavaMail 은 소켓 I/O 를 synchronized 안에서 하므로
+     * 가상 스레드는 캐리어에 고정(pinning)되어 저사양(1 vCPU) 환경에서 직렬화된다. 그래서 연결 수만큼의
+     * 플랫폼 스레드를 쓴다.
      */
-    public List<RateEntry> loadTodayCancellationCompensations() {
-        Properties p = new Properties();
-        p.put("mail.store.protocol", "imaps");
-        p.put("mail.imaps.host", props.mail().imap().host());
-        p.put("mail.imaps.port", String.valueOf(props.mail().imap().port()));
-        p.put("mail.imaps.ssl.enable", "true");
-        p.put("mail.mime.allowutf8", "true");
+    private ScanResult scanWindows(Folder inbox, long[] matched, long uidValidity, Date start, Date end)
+            throws MessagingException {
+        int windowSize = Math.max(1, props.mail().imap().windowSize());
+        Queue<long[]> windows = new ConcurrentLinkedQueue<>();
+        for (int from = 0; from < matched.length; from += windowSize)
+            windows.add(Arrays.copyOfRange(matched, from, Math.min(matched.length, from + windowSize)));
+
+        int parallelism = Math.min(props.mail().imap().parallelism(), windows.size());
+        if (parallelism <= 1)
+            return drain(inbox, windows, uidValidity, start, end);
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("imap-fetch-", 0).daemon().factory());
+        try {
+            List<Future<ScanResult>> futures = new ArrayList<>();
+            futures.add(pool.submit(() -> drain(inbox, windows, uidValidity, start, end)));
+            for (int i = 1; i < parallelism; i++)
+                futures.add(pool.submit(() -> withInbox(f -> drain(f, windows, uidValidity, start, end))));
+            ScanResult merged = ScanResult.empty();
+            for (Future<ScanResult> f : futures)
+                merged = merged.merge(f.get());
+            log.debug("병렬 스캔: {}건 / 연결 {}개", matched.length, parallelism);
+            return merged;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MessagingException me)
+                throw me;
+            throw new IllegalStateException("IMAP 병렬 스캔 실패", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("IMAP 병렬 스캔 중단", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-        Session session = Session.getInstance(p);
-        try (Store store = session.getStore("imaps")) {
-            store.connect(props.mail().user(), props.mail().pass());
-            Folder inbox = store.getFolder("INBOX");
-            inbox.open(Folder.READ_ONLY);
-
-            LocalDate today = LocalDate.now(KST);
-            Date start = Date.from(today.minusDays(props.gcal().lookBackDays()).atStartOfDay(KST).toInstant());
-            Date end = Date.from(today.plusDays(1).atStartOfDay(KST).toInstant());
-
-            Message[] found = inbox.search(new jakarta.mail.search.SubjectTerm("수업을 취소했습니다"));
-            FetchProfile fp = new FetchProfile();
-            fp.add(FetchProfile.Item.ENVELOPE);
-            fp.add(FetchProfile.Item.CONTENT_INFO);
-            inbox.fetch(found, fp);
-
-            List<RateEntry> results = Arrays.stream(found)
-                    .filter(m -> isInRange(m, start, end))
-                    .map(m -> parseCancellationCompensation(m, today))
-                    .flatMap(Optional::stream)
-                    .toList();
-
-            inbox.close(false);
-            return results;
-        } catch (MessagingException e) {
-            throw new IllegalStateException("IMAP 읽기 실패(취소 보상)", e);
+    // 큐가 빌 때까지 윈도우를 하나씩 꺼내 처리한다
+    private ScanResult drain(Folder folder, Queue<long[]> windows, long uidValidity, Date start, Date end)
+            throws MessagingException {
+        if (((UIDFolder) folder).getUIDValidity() != uidValidity)
+            throw new MessagingException("스캔 중 UIDVALIDITY 변경: " + folder.getFullName());
+        ScanResult acc = ScanResult.empty();
+        long[] window;
+        while ((window = windows.poll()) != null) {
+            acc.merge(scan(folder, ((UIDFolder) folder).getMessagesByUID(window), start, end));
+            if (!windows.isEmpty())
+                release(folder, uidValidity);
         }
+        return acc;
     }
 
-    private Optional<RateEntry> parseCancellationCompensation(Message m, LocalDate today) {
-        try {
-            String html = extractHtml(m).orElseGet(() -> {
-                try {
-                    return extractText(m).orElse("");
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
+    // 프리페치 후 제목으로 템플릿을 골라 파싱한다
+    private ScanResult scan(Folder folder, Message[] byUid, Date start, Date end) throws MessagingException {
+        // 그 사이 삭제된 UID 는 null 로 온다
+        Message[] msgs = Arrays.stream(byUid).filter(Objects::nonNull).toArray(Message[]::new);
+        FetchProfile fp = new FetchProfile();
+        fp.add(FetchProfile.Item.ENVELOPE);
+        fp.add(FetchProfile.Item.CONTENT_INFO);
+        timed("fetch", () -> {
+            folder.fetch(msgs, fp);
+            return null;
+        });
+
+        // 부분 fetch 면 본문 섹션 조회도 파싱 시간에 포함된다
+        return timed("parse", () -> {
+            ScanResult result = ScanResult.empty();
+            for (Message m : msgs) {
+                if (!isInRange(m, start, end)) {
+                    count("skipped_range");
+                    continue;
                 }
-            });
-            if (html.isBlank())
-                return Optional.empty();
-
-            String cleaned = cleanText(org.jsoup.Jsoup.parse(html).text());
-            if (!IS_COMPENSATION_TEXT.test(cleaned))
-                return Optional.empty();
-
-            LocalDate lessonDate = extractLessonDate(cleaned, today);
-            if (lessonDate == null || !lessonDate.equals(today))
-                return Optional.empty();
+                String subject = m.getSubject();
+                if (PreplyMailParser.CANCELLATION_COMPENSATION.accepts(subject)) {
+                    parse(PreplyMailParser.CANCELLATION_COMPENSATION, m, subject)
+                            .ifPresent(result.compensations()::add);
+                } else if (PreplyMailParser.BOOKING.accepts(subject)) {
+                    parse(PreplyMailParser.BOOKING, m, subject).ifPresent(re -> mergeRate(result.rates(), re));
+                } else {
+                    count("ignored");
+                }
+            }
+            return result;
+        });
+    }
 
-            String student = extractStudent(cleaned).or(() -> extractStudentFromSubject(m)).map(String::trim)
-                    .orElse("");
-            if (student.isBlank())
-                return Optional.empty();
+    @FunctionalInterface
+    private interface ImapStep<T> {
+        T run() throws MessagingException;
+    }
 
-            var amountAndCurrency = extractAmountAndCurrency(cleaned).orElse(null);
-            if (amountAndCurrency == null)
-                return Optional.empty();
+    // IMAP 단계별 소요 시간 (op: connect/search/fetch/parse)
+    private <T> T timed(String op, ImapStep<T> step) throws MessagingException {
+        long t0 = System.nanoTime();
+        try {
+            return step.run();
+        } finally {
+            meters.timer("imap.stage", "op", op).record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
 
-            BigDecimal amount = amountAndCurrency.amount().multiply(new BigDecimal("0.82"));
-            String currency = normalizeCurrency(amountAndCurrency.currencyRaw());
+    // 검사한 메일의 처리 결과 (result: parsed/ignored/skipped_range/failed, 합계 = 검사한 메일 수)
+    private void count(String result) {
+        meters.counter("imap.messages", "result", result).increment();
+    }
 
-            ZonedDateTime receivedAt = Optional.ofNullable(m.getReceivedDate())
-                    .map(d -> d.toInstant().atZone(KST))
-                    .orElse(ZonedDateTime.now(KST));
+    @FunctionalInterface
+    private interface FolderCallback<T> {
+        T apply(Folder inbox) throws MessagingException;
+    }
 
-            return Optional.of(new RateEntry(normalize(student), new Money(amount, currency), receivedAt));
-        } catch (Exception e) {
-            log.warn("취소 보상 파싱 오류: {}", e.toString());
-            return Optional.empty();
+    // IMAP 연결 1개를 열어 INBOX(READ_ONLY)로 콜백을 실행하고 닫는다
+    private <T> T withInbox(FolderCallback<T> callback) throws MessagingException {
+        Session session = Session.getInstance(imapProperties());
+        try (Store store = session.getStore("imaps")) {
+            Folder inbox = timed("connect", () -> {
+                store.connect(props.mail().user(), props.mail().pass());
+                Folder f = store.getFolder("INBOX");
+                f.open(Folder.READ_ONLY);
+                return f;
+            });
+            try {
+                return callback.apply(inbox);
+            } finally {
+                if (inbox.isOpen())
+                    inbox.close(false);
+            }
         }
     }
 
-    private LocalDate extractLessonDate(String cleaned, LocalDate today) {
-        Matcher md = P_LESSON_DATE.matcher(cleaned);
-        if (!md.find())
-            return null;
-        int mm = Integer.parseInt(md.group(1));
-        int dd = Integer.parseInt(md.group(2));
-        return LocalDate.of(today.getYear(), mm, dd);
+    /**
+     * 오늘(KST) 레슨이 12시간 이내 취소되어 보상 지급되는 항목만 스냅샷에 담는다.
+     */
+    static MailboxSnapshot toSnapshot(Map<String, RateEntry> rates, List<Compensation> compensations,
+            LocalDate today) {
+        Map<String, Money> rateByStudent = toRateByStudent(rates);
+        List<RateEntry> todayCompensations = compensations.stream()
+                .filter(c -> c.lessonDate().equals(today))
+                .map(c -> new RateEntry(c.studentName(), c.money(), c.receivedAt()))
+                .toList();
+        return new MailboxSnapshot(rateByStudent, todayCompensations);
+    }
+
+    /**
+     * 제목 조건 + 기간 조건을 서버 검색으로 보낸다.
+     * IMAP SINCE/BEFORE 는 시각·타임존 없이 날짜 단위로만 비교하므로 앞뒤로 하루씩 여유를 두고,
+     * 정확한 KST 경계는 {@link #isInRange}에서 다시 확인한다.
+     */
+    private static SearchTerm searchTerm(Date start, Date end) {
+        Date since = Date.from(start.toInstant().minus(Duration.ofDays(1)));
+        Date before = Date.from(end.toInstant().plus(Duration.ofDays(1)));
+        return new AndTerm(new SearchTerm[] {
+                PREPLY_SUBJECT,
+                new OrTerm(new ReceivedDateTerm(ComparisonTerm.GE, since),
+                        new SentDateTerm(ComparisonTerm.GE, since)),
+                new OrTerm(new ReceivedDateTerm(ComparisonTerm.LT, before),
+                        new SentDateTerm(ComparisonTerm.LT, before)) });
     }
 
-    private Optional<String> extractStudent(String cleaned) {
-        return Optional.ofNullable(firstMatch(cleaned, P_STUDENT_BODY));
+    private Properties imapProperties() {
+        Properties p = new Properties();
+        p.put("mail.store.protocol", "imaps");
+        p.put("mail.imaps.host", props.mail().imap().host());
+        p.put("mail.imaps.port", String.valueOf(props.mail().imap().port()));
+        p.put("mail.imaps.ssl.enable", "true");
+        p.put("mail.mime.allowutf8", "true");
+        return p;
     }
 
-    private Optional<String> extractStudentFromSubject(Message m) {
+    // 본문을 읽어 텍스트화한 뒤 템플릿으로 파싱한다. 메일 한 통의 실패가 전체 스캔을 막지 않게 삼킨다.
+    private <T> Optional<T> parse(MailTemplate<T> template, Message m, String subject) {
+        PreplyEvents.MailParse event = new PreplyEvents.MailParse();
+        event.begin();
+        event.template = template.name();
+        String outcome = "ignored";
         try {
-            String subj = Optional.ofNullable(m.getSubject()).orElse("");
-            Matcher ms = P_SUBJECT_CANCEL_STUDENT.matcher(subj);
-            return ms.find() ? Optional.of(ms.group(1)) : Optional.empty();
+            String body = readBody(m);
+            event.bodyLength = body.length();
+            if (body.isBlank())
+                return Optional.empty();
+            ZonedDateTime receivedAt = Optional.ofNullable(m.getReceivedDate())
+                    .map(d -> d.toInstant().atZone(KST))
+                    .orElse(ZonedDateTime.now(KST));
+            Optional<T> parsed = template.parse(subject, PreplyMailParser.toText(body), receivedAt);
+            if (parsed.isPresent())
+                outcome = "parsed";
+            return parsed;
         } catch (Exception e) {
+            log.warn("{} 메일 파싱 오류: {}", template.name(), e.toString());
+            outcome = "failed";
             return Optional.empty();
+        } finally {
+            count(outcome);
+            event.outcome = outcome;
+            event.commit();
         }
     }
 
-    private static record AmountCurrency(BigDecimal amount, String currencyRaw) {
-    }
-
-    private Optional<AmountCurrency> extractAmountAndCurrency(String cleaned) {
-        Matcher mUsd = P_USD_INLINE.matcher(cleaned);
-        if (mUsd.find()) {
-            return Optional.of(new AmountCurrency(new BigDecimal(mUsd.group(1).replace(",", "")), "$"));
-        }
-        Matcher mCur = P_AMOUNT_CURRENCY.matcher(cleaned);
-        if (mCur.find()) {
-            return Optional.of(new AmountCurrency(new BigDecimal(mCur.group(1).replace(",", "")), mCur.group(2)));
-        }
-        return Optional.empty();
-    }
-
     private static boolean isInRange(Message m, Date start, Date end) {
         try {
             Date r = m.getReceivedDate();
@@ -303,116 +506,11 @@ public class PreplyRateCacheLoader {
         }
     }
 
-    private Optional<RateEntry> extractRate(Message msg) {
-        try {
-            // 1) HTML 우선으로 꺼내서 평탄화
-            String html = extractHtml(msg).orElseGet(() -> {
-                try {
-                    return extractText(msg).orElse("");
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            });
-            if (html.isBlank())
-                return Optional.empty();
-
-            String text = org.jsoup.Jsoup.parse(html).text();
-            String cleaned = cleanText(text);
-
-            // 2) 학생 이름 (KO/EN 라벨 모두 지원, 다음 라벨 직전까지만 비탐욕 캡처)
-            Pattern STU_KO = Pattern.compile(
-                    "학생\\s*[:：]\\s*(.+?)\\s*(?=(레슨\\s*시간|Lesson\\s*time|비용|Price)\\s*[:：]|$)",
-                    Pattern.CASE_INSENSITIVE);
-            Pattern STU_EN = Pattern.compile(
-                    "Student\\s*[:：]\\s*(.+?)\\s*(?=(Lesson\\s*time|레슨\\s*시간|Price|비용)\\s*[:：]|$)",
-                    Pattern.CASE_INSENSITIVE);
-            String student = firstMatch(cleaned, STU_KO, STU_EN);
-            if (student == null || student.isBlank()) {
-                return Optional.empty();
-            }
-            student = student.trim();
-
-            // 3) 금액/통화 (다양한 표기 대응: 라벨/콜론 선택, 기호 앞뒤, 통화 코드/기호)
-            Pattern P_PRICE = Pattern.compile(
-                    "(?:비용|Price)\\s*[:：]?\\s*(\\$|USD|₩|KRW)?\\s*([0-9][0-9,]*\\.?[0-9]{0,2})\\s*(USD|KRW|\\$|₩)?",
-                    Pattern.CASE_INSENSITIVE);
-            String num = null;
-            String curRaw = null;
-            Matcher mp = P_PRICE.matcher(cleaned);
-            if (mp.find()) {
-                num = mp.group(2);
-                curRaw = mp.group(1) != null && !mp.group(1).isBlank() ? mp.group(1) : mp.group(3);
-            }
-
-            if (num == null) {
-                Matcher m1 = Pattern.compile("\\$\\s*([0-9][0-9,]*\\.?[0-9]{0,2})").matcher(cleaned);
-                if (m1.find()) {
-                    num = m1.group(1);
-                    curRaw = "$";
-                }
-            }
-
-            if (num == null) {
-                Matcher m2 = Pattern
-                        .compile("([0-9][0-9,]*\\.?[0-9]{0,2})\\s*(USD|KRW)", Pattern.CASE_INSENSITIVE)
-                        .matcher(cleaned);
-                if (m2.find()) {
-                    num = m2.group(1);
-                    curRaw = m2.group(2);
-                }
-            }
-
-            if (num == null) {
-                return Optional.empty();
-            }
-
-            BigDecimal amount = new BigDecimal(num.replace(",", "")).multiply(new BigDecimal("0.82"));
-
-            String currency = normalizeCurrency(curRaw);
-
-            // 4) 수신 시각(KST)
-            ZonedDateTime receivedAt = Optional.ofNullable(msg.getReceivedDate())
-                    .map(d -> d.toInstant().atZone(KST))
-                    .orElse(ZonedDateTime.now(KST));
-
-            // 5) 캐싱에 들어갈 엔트리 반환
-            return Optional.of(new RateEntry(student, new Money(amount, currency), receivedAt));
-
-        } catch (Exception e) {
-            // log.warn("extractRate error: {}", e.toString());
-            return Optional.empty();
-        }
-    }
-
-    private Optional<String> extractHtml(Part p) throws Exception {
-        if (p.isMimeType("text/html"))
-            return Optional.of((String) p.getContent());
-        if (p.isMimeType("multipart/*")) {
-            Multipart mp = (Multipart) p.getContent();
-            for (int i = 0; i < mp.getCount(); i++) {
-                var r = extractHtml(mp.getBodyPart(i));
-                if (r.isPresent())
-                    return r;
-            }
-        }
-        if (p.isMimeType("message/rfc822"))
-            return extractHtml((Part) p.getContent());
-        return Optional.empty();
-    }
-
-    private Optional<String> extractText(Part p) throws Exception {
-        if (p.isMimeType("text/plain"))
-            return Optional.of((String) p.getContent());
-        if (p.isMimeType("multipart/*")) {
-            Multipart mp = (Multipart) p.getContent();
-            for (int i = 0; i < mp.getCount(); i++) {
-                var r = extractText(mp.getBodyPart(i));
-                if (r.isPresent())
-                    return r;
-            }
-        }
-        if (p.isMimeType("message/rfc822"))
-            return extractText((Part) p.getContent());
-        return Optional.empty();
+    // HTML 우선, 없으면 text/plain. IMAP 이면 해당 섹션만 부분 fetch 한다.
+    private String readBody(Message m) throws Exception {
+        AppProps.Mail.Imap imap = props.mail().imap();
+        if (imap.partialFetch() && m.getFolder() instanceof IMAPFolder)
+            return ImapBodyFetcher.fetch(m, imap.maxBodyBytes()).orElse("");
+        return PreplyMailParser.bodyOf(m);
     }
-}
\ No newline at end of file
+}
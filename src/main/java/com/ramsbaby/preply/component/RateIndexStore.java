@@ -0,0 +1,61 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.RateIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 단가 인덱스를 로컬 파일(JSON)로 보관한다.
+ * 저장은 임시 파일 → 원자적 이동으로 처리해 중간에 죽어도 깨진 파일이 남지 않게 한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateIndexStore {
+
+    private static final String FILE_NAME = "rate-index.json";
+
+    private final AppProps props;
+    private final ObjectMapper om;
+
+    public Optional<RateIndex> load() {
+        Path file = path();
+        if (!Files.isRegularFile(file))
+            return Optional.empty();
+        try {
+            return Optional.of(om.readValue(file.toFile(), RateIndex.class));
+        } catch (IOException e) {
+            // 손상된 인덱스는 버리고 전체 재구성
+            log.warn("단가 인덱스 읽기 실패, 전체 재구성합니다: {}", e.toString());
+            return Optional.empty();
+        }
+    }
+
+    public void save(RateIndex index) {
+        Path file = path();
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+            om.writeValue(tmp.toFile(), index);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 인덱스 저장 실패는 다음 실행에서 재스캔하면 되므로 치명적이지 않음
+            log.warn("단가 인덱스 저장 실패: {}", e.toString());
+        }
+    }
+
+    private Path path() {
+        return Path.of(props.storage().dir()).toAbsolutePath().resolve(FILE_NAME);
+    }
+}
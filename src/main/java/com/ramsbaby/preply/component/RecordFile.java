@@ -0,0 +1,156 @@
+package com.ramsbaby.preply.component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * append-only 바이너리 레코드 파일 공통 처리 (환율 스냅샷, 수입 원장).
+ * 레코드: [길이 int][본문][CRC32 int]. 읽을 때 마지막 정상 레코드 뒤의 깨진 꼬리는 잘라내
+ * 다음 append 가 정상 레코드 뒤에 붙도록 한다.
+ */
+@Slf4j
+final class RecordFile {
+
+    private static final MathContext LONG_PRECISION = new MathContext(18);
+
+    private RecordFile() {
+    }
+
+    @FunctionalInterface
+    interface Reader {
+        // offset: 레코드 시작 위치 (read 로 다시 읽을 때 사용)
+        void accept(long offset, byte[] body) throws IOException;
+    }
+
+    // 파일 끝에 붙이고 디스크까지 내린 뒤 레코드 시작 위치를 돌려준다
+    static long append(Path file, byte[] body) throws IOException {
+        Files.createDirectories(file.getParent());
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer rec = ByteBuffer.allocate(4 + body.length + 4);
+        rec.putInt(body.length).put(body).putInt((int) crc.getValue()).flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long offset = ch.size();
+            while (rec.hasRemaining())
+                ch.write(rec);
+            ch.force(false);
+            return offset;
+        }
+    }
+
+    // 정상 레코드를 앞에서부터 넘기고 개수를 돌려준다 (파일이 없으면 0)
+    static int readAll(Path file, int maxRecord, String label, Reader reader) throws IOException {
+        if (!Files.isRegularFile(file))
+            return 0;
+        long good = 0;
+        int count = 0;
+        try (InputStream raw = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            while (true) {
+                int len;
+                try {
+                    len = in.readInt();
+                } catch (EOFException eof) {
+                    break;
+                }
+                if (len <= 0 || len > maxRecord)
+                    break;
+                byte[] body = new byte[len];
+                in.readFully(body);
+                int stored = in.readInt();
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != stored)
+                    break;
+                reader.accept(good, body);
+                good += 4 + len + 4;
+                count++;
+            }
+        } catch (EOFException e) {
+            // 꼬리 레코드가 덜 쓰임
+        }
+        truncateTail(file, good, label);
+        return count;
+    }
+
+    // offset 위치의 레코드 본문 (CRC 불일치면 IOException)
+    static byte[] read(Path file, long offset) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            readFully(ch, head, offset);
+            int len = head.flip().getInt();
+            ByteBuffer rec = ByteBuffer.allocate(len + 4);
+            readFully(ch, rec, offset + 4);
+            rec.flip();
+            byte[] body = new byte[len];
+            rec.get(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != rec.getInt())
+                throw new IOException("레코드 CRC 불일치: " + file + "@" + offset);
+            return body;
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, position + buf.position());
+            if (n < 0)
+                throw new EOFException(ch + "@" + position);
+        }
+    }
+
+    private static void truncateTail(Path file, long good, String label) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (ch.size() > good) {
+                log.warn("{} 파일 꼬리 손상, {}B 이후를 잘라냅니다", label, good);
+                ch.truncate(good);
+            }
+        } catch (IOException e) {
+            log.warn("{} 파일 정리 실패: {}", label, e.toString());
+        }
+    }
+
+    // 통화 코드 3바이트
+    static void writeCode(DataOutputStream out, String code) throws IOException {
+        out.write(code.getBytes(StandardCharsets.US_ASCII), 0, 3);
+    }
+
+    static String readCode(DataInputStream in) throws IOException {
+        byte[] b = new byte[3];
+        in.readFully(b);
+        return new String(b, StandardCharsets.US_ASCII);
+    }
+
+    // 금액/환율: unscaled long + scale byte (long 에 안 들어가면 18자리로 반올림)
+    static void writeDecimal(DataOutputStream out, BigDecimal v) throws IOException {
+        v = v.stripTrailingZeros();
+        if (v.unscaledValue().bitLength() > 63 || v.scale() > Byte.MAX_VALUE || v.scale() < Byte.MIN_VALUE)
+            v = v.round(LONG_PRECISION).stripTrailingZeros();
+        out.writeLong(v.unscaledValue().longValueExact());
+        out.writeByte(v.scale());
+    }
+
+    static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        long unscaled = in.readLong();
+        int scale = in.readByte();
+        return new BigDecimal(BigInteger.valueOf(unscaled), scale);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.FxDailySnapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * replay 프로필의 환율. 고정 환율표 파일을 한 번 읽어 그대로 쓴다(네트워크 없음).
+ * 형식: {"asOf": "2025-01-31T14:00:00Z", "rates": {"USD": 1452.3, "EUR": 1510.8}} (1 통화 = n KRW)
+ * 파일이 없으면 운영에서 쌓인 일별 환율 스냅샷({@link FxSnapshotStore}) 중 기준일 것을 쓴다.
+ */
+@Service
+@Profile("replay")
+@Slf4j
+public class ReplayFxRates implements FxRates {
+
+    private final Table table;
+    private final String source;
+
+    public ReplayFxRates(AppProps props, ObjectMapper om, FxSnapshotStore snapshots, Clock clock) {
+        Path file = Path.of(props.replay().fxPath());
+        if (Files.isRegularFile(file)) {
+            try {
+                this.table = om.readValue(file.toFile(), Table.class);
+            } catch (IOException e) {
+                throw new IllegalStateException("리플레이 환율표 읽기 실패: " + file.toAbsolutePath(), e);
+            }
+            this.source = "replay:" + file.getFileName();
+        } else {
+            LocalDate date = LocalDate.now(clock.withZone(ZoneId.of(props.gcal().timeZone())));
+            FxDailySnapshot s = snapshots.onOrBefore(date).orElseThrow(() -> new IllegalStateException(
+                    "리플레이 환율표 파일도, " + date + " 이전 저장된 환율 스냅샷도 없습니다: " + file.toAbsolutePath()));
+            this.table = fromSnapshot(s);
+            this.source = s.source() + " (" + s.date() + " 저장본)";
+        }
+        log.info("리플레이 환율표: {}개 통화 (asOf {})", table.rates() == null ? 0 : table.rates().size(), table.asOf());
+    }
+
+    @Override
+    public BigDecimal krwPer(String currency) {
+        String cur = Objects.requireNonNull(currency, "currency").toUpperCase(Locale.ROOT);
+        if ("KRW".equals(cur))
+            return BigDecimal.ONE;
+        BigDecimal rate = table.rates() == null ? null : table.rates().get(cur);
+        if (rate == null)
+            throw new IllegalStateException("리플레이 환율표에 없는 통화: " + cur + "→KRW");
+        return rate;
+    }
+
+    @Override
+    public FxRateService.Snapshot snapshot(String currency) {
+        return new FxRateService.Snapshot(krwPer(currency), table.asOf() != null ? table.asOf() : Instant.EPOCH,
+                source, false);
+    }
+
+    // base 기준 환율표 → 1 통화 = n KRW 표
+    private static Table fromSnapshot(FxDailySnapshot s) {
+        BigDecimal krw = "KRW".equals(s.base()) ? BigDecimal.ONE : s.rates().get("KRW");
+        if (krw == null)
+            throw new IllegalStateException("저장된 환율 스냅샷에 KRW 가 없습니다: " + s.date());
+        Map<String, BigDecimal> krwPer = new HashMap<>();
+        krwPer.put(s.base(), krw);
+        s.rates().forEach((cur, r) -> {
+            if (r.signum() > 0 && !cur.equals(s.base()))
+                krwPer.put(cur, krw.divide(r, MathContext.DECIMAL64));
+        });
+        return new Table(s.asOf(), krwPer);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record Table(Instant asOf, Map<String, BigDecimal> rates) {
+    }
+}
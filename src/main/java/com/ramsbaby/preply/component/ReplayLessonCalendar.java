@@ -0,0 +1,71 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.Events;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.LessonEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * replay 프로필의 캘린더. Calendar API events.list 응답(JSON)을 그대로 저장한 파일을 읽어
+ * 기준일 하루치 이벤트만 골라 {@link GcalReader}와 같은 규칙으로 변환한다.
+ * 여러 날짜를 한 파일에 담아 두고 app.replay.date 만 바꿔 가며 돌릴 수 있다.
+ */
+@Service
+@Profile("replay")
+@RequiredArgsConstructor
+public class ReplayLessonCalendar implements LessonCalendar {
+
+    private final AppProps props;
+
+    @Override
+    public List<LessonEvent> loadPreplyEvents(LocalDate today) {
+        Path file = Path.of(props.replay().eventsPath());
+        Events events;
+        try (InputStream in = Files.newInputStream(file)) {
+            events = GsonFactory.getDefaultInstance().fromInputStream(in, StandardCharsets.UTF_8, Events.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("리플레이 캘린더 파일 읽기 실패: " + file.toAbsolutePath(), e);
+        }
+
+        var tz = ZoneId.of(props.gcal().timeZone());
+        long start = today.atStartOfDay(tz).toInstant().toEpochMilli();
+        long end = today.plusDays(1).atStartOfDay(tz).toInstant().toEpochMilli();
+
+        List<Event> todays = new ArrayList<>();
+        if (events.getItems() != null) {
+            for (Event e : events.getItems()) {
+                if (e.getStart() == null)
+                    continue;
+                long at = startMillis(e);
+                if (at >= start && at < end)
+                    todays.add(e);
+            }
+        }
+        // 운영 조회(orderBy=startTime)와 같은 순서
+        todays.sort(Comparator.comparingLong(ReplayLessonCalendar::startMillis));
+        return GcalReader.toLessonEvents(todays, tz, props.gcal().preplySuffix());
+    }
+
+    private static long startMillis(Event e) {
+        return e.getStart().getDateTime() != null
+                ? e.getStart().getDateTime().getValue()
+                : e.getStart().getDate().getValue();
+    }
+}
@@ -0,0 +1,84 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import com.ramsbaby.preply.config.AppProps;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * replay 프로필의 메일 발송기. SMTP 로 보내지 않고 요약 메일의 제목/수신자/본문을
+ * {outputDir}/summary-{기준일}.txt 로 저장한다. 같은 날짜를 운영 결과와 diff 하는 용도.
+ * 기준일은 아웃박스가 붙인 {@link MailOutbox#SUMMARY_DATE_HEADER} 헤더, 없으면 제목의 yyyy-MM-dd, 그것도 없으면 오늘.
+ * (JavaMailSender 빈이 있으면 Spring Boot 의 SMTP 자동 설정은 물러난다)
+ */
+@Component
+@Profile("replay")
+@Slf4j
+public class ReplayMailSender extends JavaMailSenderImpl {
+
+    private static final Pattern SUBJECT_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+    private final AppProps props;
+    private final Clock clock;
+
+    public ReplayMailSender(AppProps props, Clock clock) {
+        this.props = props;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+        for (MimeMessage m : mimeMessages) {
+            Path file = Path.of(props.replay().outputDir()).toAbsolutePath()
+                    .resolve("summary-" + summaryDate(m) + ".txt");
+            try {
+                Address[] to = m.getRecipients(Message.RecipientType.TO);
+                String text = "Subject: " + m.getSubject() + "\n"
+                        + "To: " + (to == null ? "" : Arrays.stream(to).map(Address::toString)
+                                .collect(Collectors.joining(", ")))
+                        + "\n\n" + m.getContent();
+                Files.createDirectories(file.getParent());
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.writeString(tmp, text, StandardCharsets.UTF_8);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.info("리플레이 요약 저장: {}", file);
+            } catch (IOException | jakarta.mail.MessagingException e) {
+                throw new MailPreparationException("리플레이 요약 저장 실패: " + file, e);
+            }
+        }
+    }
+
+    // 헤더 → 제목의 날짜 → 오늘 순서로 기준일을 정한다
+    private LocalDate summaryDate(MimeMessage m) {
+        try {
+            String header = m.getHeader(MailOutbox.SUMMARY_DATE_HEADER, null);
+            if (header != null)
+                return LocalDate.parse(header.trim());
+            Matcher d = SUBJECT_DATE.matcher(m.getSubject() == null ? "" : m.getSubject());
+            if (d.find())
+                return LocalDate.parse(d.group());
+        } catch (jakarta.mail.MessagingException | java.time.format.DateTimeParseException e) {
+            log.warn("요약 기준일을 읽지 못해 오늘 날짜로 저장합니다: {}", e.toString());
+        }
+        return LocalDate.now(clock);
+    }
+}
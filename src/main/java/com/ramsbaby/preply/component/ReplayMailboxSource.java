@@ -0,0 +1,127 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.ramsbaby.preply.component.PreplyRateCacheLoader.ScanResult;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.MailboxSnapshot;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MailDateFormat;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * replay 프로필의 메일 소스. 로컬 .eml 디렉터리 또는 mbox 파일을 메모리 매핑으로 읽어
+ * 운영과 같은 템플릿/병합 규칙으로 스냅샷을 만든다.
+ * - 기준 날짜는 실행 기준일(기본 app.replay.date)이고, 조회 기간은 운영과 같이 lookBackDays ~ 기준일 다음날 00:00.
+ * - 운영 인덱스(rate-index.json)는 읽지도 쓰지도 않는다. 매번 코퍼스 전체를 병렬로 스캔한다.
+ */
+@Service
+@Profile("replay")
+@RequiredArgsConstructor
+@Slf4j
+public class ReplayMailboxSource implements MailboxSource {
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    private final AppProps props;
+
+    // 파싱 전용 세션 (서버 연결 없음)
+    private final Session session = Session.getInstance(mimeProperties());
+
+    @Override
+    public MailboxSnapshot loadSnapshot(LocalDate today) {
+        Instant start = today.minusDays(props.gcal().lookBackDays()).atStartOfDay(KST).toInstant();
+        Instant end = today.plusDays(1).atStartOfDay(KST).toInstant();
+        Path path = Path.of(props.replay().mailPath());
+
+        LongAdder seen = new LongAdder();
+        long t0 = System.nanoTime();
+        ScanResult result;
+        try (Stream<ByteBuffer> mails = MappedMailCorpus.open(path)) {
+            result = mails.collect(ScanResult::empty, (acc, buf) -> {
+                seen.increment();
+                scan(acc, buf, start, end);
+            }, ScanResult::merge);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("리플레이 메일 읽기 실패: " + path.toAbsolutePath(), e);
+        }
+
+        long ms = Math.max(1, (System.nanoTime() - t0) / 1_000_000);
+        log.info("리플레이 메일 스캔: {}통 / {}ms ({}통/s), 학생 {}명, 취소 보상 {}건 (기준일 {})",
+                seen.sum(), ms, seen.sum() * 1000 / ms, result.rates().size(), result.compensations().size(),
+                today);
+        return PreplyRateCacheLoader.toSnapshot(result.rates(), result.compensations(), today);
+    }
+
+    // 헤더만 먼저 보고 제목/기간이 맞는 메일만 본문까지 파싱한다
+    private void scan(ScanResult acc, ByteBuffer buf, Instant start, Instant end) {
+        try {
+            MimeMessage m = new MimeMessage(session, new MappedMailCorpus.BufferInputStream(buf));
+            String subject = m.getSubject();
+            boolean cancellation = PreplyMailParser.CANCELLATION_COMPENSATION.accepts(subject);
+            if (!cancellation && !PreplyMailParser.BOOKING.accepts(subject))
+                return;
+            Optional<ZonedDateTime> receivedAt = receivedAt(m)
+                    .filter(at -> !at.isBefore(start) && at.isBefore(end))
+                    .map(at -> at.atZone(KST));
+            if (receivedAt.isEmpty())
+                return;
+            String text = PreplyMailParser.toText(PreplyMailParser.bodyOf(m));
+            if (cancellation) {
+                PreplyMailParser.CANCELLATION_COMPENSATION.parse(subject, text, receivedAt.get())
+                        .ifPresent(acc.compensations()::add);
+            } else {
+                PreplyMailParser.BOOKING.parse(subject, text, receivedAt.get())
+                        .ifPresent(re -> PreplyRateCacheLoader.mergeRate(acc.rates(), re));
+            }
+        } catch (Exception e) {
+            // 메일 한 통의 실패가 전체 리플레이를 막지 않게 삼킨다
+            log.warn("리플레이 메일 파싱 오류: {}", e.toString());
+        }
+    }
+
+    /**
+     * 수신 시각: 맨 위 Received 헤더의 ';' 뒤 날짜(서버가 받은 시각), 없으면 Date 헤더.
+     * 운영(IMAP INTERNALDATE)과 가장 가까운 값을 쓰기 위함이다.
+     */
+    private static Optional<Instant> receivedAt(MimeMessage m) throws Exception {
+        String[] received = m.getHeader("Received");
+        if (received != null && received.length > 0) {
+            int semi = received[0].lastIndexOf(';');
+            if (semi >= 0) {
+                try {
+                    Date d = new MailDateFormat().parse(received[0].substring(semi + 1).trim());
+                    if (d != null)
+                        return Optional.of(d.toInstant());
+                } catch (java.text.ParseException ignore) {
+                    // Date 헤더로 대체
+                }
+            }
+        }
+        return Optional.ofNullable(m.getSentDate()).map(Date::toInstant);
+    }
+
+    private static Properties mimeProperties() {
+        Properties p = new Properties();
+        p.put("mail.mime.allowutf8", "true");
+        return p;
+    }
+}
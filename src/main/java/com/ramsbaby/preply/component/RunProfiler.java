@@ -0,0 +1,277 @@
+package com.ramsbaby.preply.component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.RunProfile;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요약 실행 1건을 JFR 로 녹화하고(storage/profiles/run-{id}.jfr) 단계 타임라인으로 요약한다.
+ * - JDK 기본(default) 설정으로 녹화하므로 운영에서 켜 둬도 오버헤드는 1% 안팎이다.
+ * - 파일 크기는 maxSize 로 제한하고, 최근 keep 건만 남긴다.
+ * - 녹화 실패는 실행에 영향을 주지 않는다(경고만 남김).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RunProfiler {
+
+    private static final String DIR = "profiles";
+    private static final Pattern RUN_ID = Pattern.compile("[0-9a-fA-F-]{1,64}");
+    private static final Set<String> STANDARD_FIELDS = Set.of("startTime", "duration", "eventThread", "stackTrace");
+
+    private final AppProps props;
+
+    // 녹화 중인 실행 (파일이 아직 완성되지 않음)
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    // 녹화 핸들. 꺼져 있거나 시작에 실패하면 아무것도 하지 않는다.
+    public final class Session implements AutoCloseable {
+        private final String runId;
+        private final Recording recording;
+
+        private Session(String runId, Recording recording) {
+            this.runId = runId;
+            this.recording = recording;
+        }
+
+        @Override
+        public void close() {
+            if (recording == null)
+                return;
+            try {
+                recording.stop();
+            } catch (RuntimeException e) {
+                log.warn("JFR 녹화 종료 실패: {}", e.toString());
+            } finally {
+                recording.close();
+                active.remove(runId);
+            }
+            prune();
+        }
+    }
+
+    public Session start(String runId) {
+        AppProps.Profiling cfg = props.profiling();
+        if (cfg == null || !cfg.enabled())
+            return new Session(runId, null);
+        Recording r = null;
+        try {
+            Path file = path(runId);
+            Files.createDirectories(file.getParent());
+            r = new Recording(Configuration.getConfiguration("default"));
+            r.setName("run-" + runId);
+            r.setToDisk(true);
+            r.setMaxSize(cfg.maxSize().toBytes());
+            r.setDestination(file);
+            active.add(runId);
+            r.start();
+            return new Session(runId, r);
+        } catch (IOException | ParseException | RuntimeException e) {
+            log.warn("JFR 녹화 시작 실패 (runId={}): {}", runId, e.toString());
+            active.remove(runId);
+            if (r != null)
+                r.close();
+            return new Session(runId, null);
+        }
+    }
+
+    public Optional<Path> file(String runId) {
+        if (runId == null || !RUN_ID.matcher(runId).matches() || active.contains(runId))
+            return Optional.empty();
+        Path file = path(runId);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    public Optional<RunProfile> report(String runId) {
+        return file(runId).map(f -> {
+            try {
+                return summarize(runId, f);
+            } catch (IOException e) {
+                throw new IllegalStateException("실행 프로파일 읽기 실패: " + runId, e);
+            }
+        });
+    }
+
+    private record Sample(long threadId, Instant at, long weight) {
+    }
+
+    private static RunProfile summarize(String runId, Path file) throws IOException {
+        List<RecordedEvent> spans = new ArrayList<>();
+        List<Sample> samples = new ArrayList<>();
+        Instant start = null;
+        Instant end = null;
+        Map<String, Integer> outcomes = new TreeMap<>();
+        int parsed = 0;
+        long parseNanos = 0;
+        long maxParseNanos = 0;
+        int fetches = 0;
+        long fetchedBytes = 0;
+        int gcs = 0;
+        long gcPause = 0;
+        long gcLongest = 0;
+
+        try (RecordingFile rf = new RecordingFile(file)) {
+            while (rf.hasMoreEvents()) {
+                RecordedEvent e = rf.readEvent();
+                if (start == null || e.getStartTime().isBefore(start))
+                    start = e.getStartTime();
+                if (end == null || e.getEndTime().isAfter(end))
+                    end = e.getEndTime();
+                String type = e.getEventType().getName();
+                switch (type) {
+                    case "jdk.ObjectAllocationSample" -> {
+                        RecordedThread t = e.getThread();
+                        if (t != null)
+                            samples.add(new Sample(t.getJavaThreadId(), e.getStartTime(), e.getLong("weight")));
+                    }
+                    case "jdk.GarbageCollection" -> {
+                        long pause = e.getDuration("sumOfPauses").toMillis();
+                        gcs++;
+                        gcPause += pause;
+                        gcLongest = Math.max(gcLongest, e.getDuration("longestPause").toMillis());
+                    }
+                    case PreplyEvents.PREFIX + "MailParse" -> {
+                        long nanos = e.getDuration().toNanos();
+                        parsed++;
+                        parseNanos += nanos;
+                        maxParseNanos = Math.max(maxParseNanos, nanos);
+                        outcomes.merge(String.valueOf(e.getString("outcome")), 1, Integer::sum);
+                    }
+                    case PreplyEvents.PREFIX + "MailBodyFetch" -> {
+                        fetches++;
+                        fetchedBytes += e.getLong("bytes");
+                    }
+                    default -> {
+                        if (type.startsWith(PreplyEvents.PREFIX))
+                            spans.add(e);
+                    }
+                }
+            }
+        }
+        if (start == null)
+            start = end = Instant.EPOCH;
+
+        spans.sort(Comparator.comparing(RecordedEvent::getStartTime));
+        boolean[] attributed = new boolean[samples.size()];
+        List<RunProfile.Span> timeline = new ArrayList<>(spans.size());
+        for (RecordedEvent e : spans) {
+            Long allocated = null;
+            if (e.getEventType().getName().equals(PreplyEvents.PREFIX + "SummaryStage") && e.getThread() != null)
+                allocated = allocatedIn(e, samples, attributed);
+            timeline.add(new RunProfile.Span(
+                    e.getEventType().getName().substring(PreplyEvents.PREFIX.length()),
+                    label(e),
+                    Duration.between(start, e.getStartTime()).toMillis(),
+                    e.getDuration().toMillis(),
+                    e.getThread() == null ? null : e.getThread().getJavaName(),
+                    allocated,
+                    fields(e)));
+        }
+        long unattributed = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            if (!attributed[i])
+                unattributed += samples.get(i).weight();
+        }
+
+        RunProfile.Mail mail = new RunProfile.Mail(parsed, outcomes,
+                parsed == 0 ? 0 : parseNanos / 1e6 / parsed, maxParseNanos / 1e6, fetches, fetchedBytes);
+        return new RunProfile(runId, start, end, timeline, mail, new RunProfile.Gc(gcs, gcPause, gcLongest),
+                unattributed);
+    }
+
+    // 단계 이벤트와 같은 스레드에서 그 구간에 찍힌 할당 샘플의 가중치 합
+    private static long allocatedIn(RecordedEvent stage, List<Sample> samples, boolean[] attributed) {
+        long tid = stage.getThread().getJavaThreadId();
+        Instant from = stage.getStartTime();
+        Instant to = stage.getEndTime();
+        long sum = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            Sample s = samples.get(i);
+            if (!attributed[i] && s.threadId() == tid && !s.at().isBefore(from) && !s.at().isAfter(to)) {
+                sum += s.weight();
+                attributed[i] = true;
+            }
+        }
+        return sum;
+    }
+
+    private static String label(RecordedEvent e) {
+        return switch (e.getEventType().getName().substring(PreplyEvents.PREFIX.length())) {
+            case "SummaryStage" -> e.getString("stage");
+            case "CalendarList" -> e.getString("mode");
+            case "FxProviderCall" -> e.getString("provider");
+            case "FxRefresh" -> e.getString("source");
+            default -> e.getEventType().getLabel();
+        };
+    }
+
+    private static Map<String, Object> fields(RecordedEvent e) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (ValueDescriptor d : e.getEventType().getFields()) {
+            if (!STANDARD_FIELDS.contains(d.getName()))
+                out.put(d.getName(), e.getValue(d.getName()));
+        }
+        return out;
+    }
+
+    // 최근 keep 건만 남기고 오래된 녹화 파일 삭제
+    private void prune() {
+        Path dir = dir();
+        int keep = Math.max(1, props.profiling().keep());
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> old = files
+                    .filter(p -> p.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(RunProfiler::lastModified).reversed())
+                    .skip(keep)
+                    .toList();
+            for (Path p : old)
+                Files.deleteIfExists(p);
+        } catch (IOException e) {
+            log.warn("JFR 녹화 파일 정리 실패: {}", e.toString());
+        }
+    }
+
+    private static Instant lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private Path dir() {
+        return Path.of(props.storage().dir()).toAbsolutePath().resolve(DIR);
+    }
+
+    private Path path(String runId) {
+        return dir().resolve("run-" + runId + ".jfr");
+    }
+}
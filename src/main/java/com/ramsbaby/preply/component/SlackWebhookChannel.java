@@ -0,0 +1,72 @@
+package com.ramsbaby.preply.component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.SummaryMessage;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Slack Incoming Webhook 채널 (app.webhook.slackUrl 이 비어 있으면 꺼짐).
+ * - WebClient 로 논블로킹 POST 하고, 시도마다 app.webhook.timeout 을 건다.
+ * - 429/5xx/연결 오류/시간 초과만 1초부터 지수 백오프로 app.webhook.retries 번까지 재시도한다. 그 밖의 4xx 는 바로 실패.
+ * - replay 프로필에서는 외부로 보내지 않도록 등록하지 않는다.
+ */
+@Component
+@Profile("!replay")
+public class SlackWebhookChannel implements DeliveryChannel {
+
+    private static final Duration FIRST_BACKOFF = Duration.ofSeconds(1);
+
+    private final AppProps.Webhook cfg;
+    private final WebClient client;
+
+    public SlackWebhookChannel(AppProps props, WebClient.Builder builder) {
+        this.cfg = props.webhook();
+        this.client = builder.build();
+    }
+
+    @Override
+    public String name() {
+        return "slack";
+    }
+
+    @Override
+    public boolean enabled() {
+        return cfg != null && cfg.slackUrl() != null && !cfg.slackUrl().isBlank();
+    }
+
+    @Override
+    public Mono<Void> deliver(SummaryMessage m) {
+        // mrkdwn: 제목은 굵게, 본문은 고정폭 블록으로 (메일과 같은 줄 맞춤)
+        String text = "*" + m.subject() + "*\n```" + m.body() + "```";
+        return client.post()
+                .uri(cfg.slackUrl())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("text", text))
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(cfg.timeout())
+                .retryWhen(Retry.backoff(cfg.retries(), FIRST_BACKOFF)
+                        .filter(SlackWebhookChannel::isTransient)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .then();
+    }
+
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientResponseException re)
+            return re.getStatusCode().value() == 429 || re.getStatusCode().is5xxServerError();
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+}
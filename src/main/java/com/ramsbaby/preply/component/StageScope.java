@@ -0,0 +1,143 @@
+package com.ramsbaby.preply.component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요약 파이프라인의 독립 단계를 가상 스레드로 동시에 돌리는 범위(scope).
+ * StructuredTaskScope.ShutdownOnFailure 와 같은 규칙을 정식 API 로 구현한다.
+ * - 한 단계가 실패하면 나머지 단계를 모두 취소(인터럽트)하고, join 은 처음 난 오류를 던진다.
+ * - 단계마다 시작 시점부터 deadline 을 넘기면 그 단계를 실패로 보고 똑같이 나머지를 취소한다.
+ * - close() 는 남은 단계를 취소하고 끝날 때까지 잠깐 기다려 범위 밖으로 스레드가 새지 않게 한다.
+ */
+@Slf4j
+final class StageScope implements AutoCloseable {
+
+    private static final Duration CLOSE_GRACE = Duration.ofSeconds(5);
+
+    private final DailySummaryJob.StageListener listener;
+    private final Duration deadline;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("summary-stage-", 0).factory());
+    private final List<Stage<?>> forks = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    StageScope(DailySummaryJob.StageListener listener, Duration deadline) {
+        this.listener = listener;
+        this.deadline = deadline;
+    }
+
+    final class Stage<T> {
+        private final String name;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicReference<Thread> runner = new AtomicReference<>();
+        private final long deadlineNanos;
+
+        private Stage(String name, long deadlineNanos) {
+            this.name = name;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        // 결과를 기다린다. 이 단계든 다른 단계든 실패/시간 초과가 있으면 그 오류를 던진다.
+        T join() {
+            try {
+                return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                fail(new IllegalStateException(
+                        name + " 단계가 " + deadline.toSeconds() + "초 안에 끝나지 않았습니다"));
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+            } catch (CancellationException e) {
+                // 다른 단계 실패로 취소됨 → 아래에서 원인 오류를 던짐
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(new IllegalStateException(name + " 단계 대기 중 인터럽트", e));
+            }
+            throw propagate();
+        }
+
+        private void run(Callable<T> task) {
+            runner.set(Thread.currentThread());
+            if (future.isDone())
+                return; // 시작 전에 취소됨
+            long t0 = System.nanoTime();
+            PreplyEvents.SummaryStage event = PreplyEvents.beginStage(name);
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                fail(e);
+                future.completeExceptionally(e);
+            } finally {
+                event.commit();
+                listener.onStage(name, (System.nanoTime() - t0) / 1_000_000);
+            }
+        }
+
+        // 기다리는 쪽은 바로 깨우고, 돌고 있는 스레드는 인터럽트한다.
+        // Future.cancel 로 취소하면 실행기가 그 작업을 끝난 것으로 세어 close() 가 스레드를 기다리지 않으므로
+        // 작업 자체는 실행기에 execute 로 맡기고 취소는 여기서 직접 한다.
+        private void cancel() {
+            future.cancel(false);
+            Thread t = runner.get();
+            if (t != null)
+                t.interrupt();
+        }
+    }
+
+    <T> Stage<T> fork(String name, Callable<T> task) {
+        Stage<T> stage = new Stage<>(name, System.nanoTime() + deadline.toNanos());
+        synchronized (forks) {
+            forks.add(stage);
+            // 이미 실패한 범위에 늦게 붙은 단계는 돌리지 않는다
+            if (failure.get() != null)
+                stage.cancel();
+        }
+        executor.execute(() -> stage.run(task));
+        return stage;
+    }
+
+    // 처음 난 오류만 기록하고 나머지 단계는 취소
+    private void fail(Throwable e) {
+        if (failure.compareAndSet(null, e))
+            cancelAll();
+    }
+
+    private void cancelAll() {
+        synchronized (forks) {
+            forks.forEach(Stage::cancel);
+        }
+    }
+
+    private RuntimeException propagate() {
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException re)
+            return re;
+        if (e instanceof Error err)
+            throw err;
+        return new IllegalStateException("요약 단계 실행 실패", e);
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_GRACE.toMillis(), TimeUnit.MILLISECONDS))
+                log.warn("취소 후에도 끝나지 않은 요약 단계가 있습니다");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
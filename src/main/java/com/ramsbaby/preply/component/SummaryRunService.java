@@ -0,0 +1,191 @@
+package com.ramsbaby.preply.component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.stereotype.Service;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.RunStatus;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요약 실행을 요청 스레드와 분리해 전용 실행기에서 돌리고, 실행 이력을 보관한다.
+ * - 같은 기준일의 실행이 진행 중이면 새로 띄우지 않고 그 실행을 돌려준다(single-flight).
+ * - 최근 MAX_HISTORY 건의 상태/단계별 소요 시간/결과를 메모리에 보관한다.
+ * - {@link #submitAndWait} 는 실행과 아웃박스 발송이 끝날 때까지 요청을 붙잡는다. 요청이 열려 있는 동안만
+ *   CPU 가 할당되는 환경(Cloud Run 요청 기반 과금)에서 스케줄러가 호출할 때 쓴다.
+ */
+@Service
+@Slf4j
+public class SummaryRunService {
+
+    private static final int MAX_HISTORY = 50;
+
+    private final DailySummaryJob job;
+    private final AppProps props;
+    private final RunProfiler profiler;
+    private final MailOutbox outbox;
+
+    // 파이프라인은 대부분 I/O 대기지만 실행 자체는 날짜당 한 건이므로 스레드 하나로 충분
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("summary-run").daemon().factory());
+    private final Map<LocalDate, Run> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Run> history = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Run> eldest) {
+            return size() > MAX_HISTORY;
+        }
+    });
+
+    public SummaryRunService(DailySummaryJob job, AppProps props, RunProfiler profiler,
+            MailOutbox outbox) {
+        this.job = job;
+        this.props = props;
+        this.profiler = profiler;
+        this.outbox = outbox;
+    }
+
+    // 오늘 요약 실행을 걸고 즉시 상태를 돌려준다 (진행 중이면 그 실행)
+    public RunStatus submit() {
+        return submit(null);
+    }
+
+    // date 기준 요약 실행 (null 이면 오늘). 지난 날짜는 단가 인덱스 기간(lookBackDays) 안이어야 한다.
+    public RunStatus submit(LocalDate date) {
+        return start(date).status();
+    }
+
+    /**
+     * date(null 이면 오늘) 요약 실행을 걸고, 실행이 끝난 뒤 아웃박스에 쌓인 메일이 발송될 때까지 기다린다.
+     * timeout 안에 끝나지 않으면 그 시점의 상태를 돌려준다 (실행/발송은 계속 진행).
+     */
+    public RunStatus submitAndWait(LocalDate date, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Run run = start(date);
+        try {
+            run.done.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            outbox.awaitDrained(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException | ExecutionException e) {
+            // 진행 중인 상태를 그대로 돌려준다
+        }
+        return run.status();
+    }
+
+    private Run start(LocalDate requested) {
+        LocalDate today = job.today();
+        LocalDate date = requested == null ? today : requested;
+        if (date.isAfter(today))
+            throw new IllegalArgumentException("미래 날짜는 요약할 수 없습니다: " + date);
+        if (date.isBefore(today.minusDays(props.gcal().lookBackDays())))
+            throw new IllegalArgumentException(
+                    "단가 인덱스 기간(" + props.gcal().lookBackDays() + "일)보다 이전 날짜입니다: " + date);
+        return inFlight.computeIfAbsent(date, d -> {
+            Run r = new Run(UUID.randomUUID().toString(), d);
+            history.put(r.id, r);
+            executor.execute(() -> execute(r));
+            return r;
+        });
+    }
+
+    public Optional<RunStatus> find(String id) {
+        return Optional.ofNullable(history.get(id)).map(Run::status);
+    }
+
+    private void execute(Run run) {
+        run.start();
+        String summary = null;
+        Exception failure = null;
+        try {
+            DailySummaryJob.Result result;
+            RunProfiler.Session recording = profiler.start(run.id);
+            try {
+                result = job.generateAndSend(run.date, run::stage);
+            } finally {
+                // 녹화를 먼저 닫아 SUCCEEDED 가 보이는 시점에는 프로파일도 조회 가능하게
+                recording.close();
+            }
+            summary = result.describe();
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            // 완료를 본 호출자가 다시 요청하면 끝난 실행이 아니라 새 실행이 뜨도록 먼저 뺀다
+            inFlight.remove(run.date, run);
+        }
+        if (failure == null) {
+            run.succeed(summary);
+        } else {
+            log.warn("요약 실행 실패 (runId={}): {}", run.id, failure.toString());
+            run.fail(failure.toString());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // 실행 1건의 가변 상태 (읽기는 status() 스냅샷으로). 테넌트 실행({@link TenantRunService})도 같이 쓴다.
+    static final class Run {
+        private final String id;
+        private final LocalDate date;
+        private final Instant queuedAt = Instant.now();
+        private final Map<String, Long> stageMillis = new LinkedHashMap<>();
+        private String state = "QUEUED";
+        private Instant startedAt;
+        private Instant finishedAt;
+        private String result;
+        private String error;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Run(String id, LocalDate date) {
+            this.id = id;
+            this.date = date;
+        }
+
+        synchronized void start() {
+            state = "RUNNING";
+            startedAt = Instant.now();
+        }
+
+        synchronized void stage(String stage, long millis) {
+            stageMillis.put(stage, millis);
+        }
+
+        synchronized void succeed(String summary) {
+            state = "SUCCEEDED";
+            result = summary;
+            finishedAt = Instant.now();
+            done.complete(null);
+        }
+
+        synchronized void fail(String cause) {
+            state = "FAILED";
+            error = cause;
+            finishedAt = Instant.now();
+            done.complete(null);
+        }
+
+        synchronized RunStatus status() {
+            return new RunStatus(id, date, state, queuedAt, startedAt, finishedAt, Map.copyOf(stageMillis), result,
+                    error);
+        }
+    }
+}
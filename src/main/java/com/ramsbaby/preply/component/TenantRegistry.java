@@ -0,0 +1,147 @@
+package com.ramsbaby.preply.component;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.config.MetricsConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * app.tenants 에 등록된 튜터 계정마다 요약 파이프라인(메일함/캘린더/발송)을 따로 만들어 둔다.
+ * - 단가/캘린더 인덱스, 수입 원장과 메모리 캐시는 테넌트별 인스턴스와 storage.dir/tenants/{id} 에 분리되고,
+ *   환율표(FxRates)와 메일 아웃박스(발송 연결은 계정별), Clock/MeterRegistry 만 공유한다.
+ *   파이프라인 지표에는 tenant 태그가 붙는다({@link MetricsConfig}).
+ *   Slack 채널은 테넌트의 slackUrl 이 있을 때만 켜진다.
+ * - 메일함 단계는 IMAP 서버(호스트)별 세마포어로 감싸, 같은 서버에 동시에 여는 연결 수가
+ *   tenancy.maxImapConnectionsPerHost 를 넘지 않게 한다. (테넌트 1개의 병렬 연결 수도 이 값으로 자른다)
+ *   슬롯 대기는 파이프라인 단계 제한 시간이 시작되기 전에 한다({@link ImapHostLimiter}).
+ * - 설정 오류(중복/잘못된 id, 계정 누락)는 기동 시점에 실패시킨다.
+ */
+@Component
+@Profile("!replay")
+@Slf4j
+public class TenantRegistry {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+    private static final String DIR = "tenants";
+
+    // 테넌트 1개의 파이프라인
+    public record Tenant(String id, ZoneId zone, DailySummaryJob job, EarningsLedger ledger) {
+    }
+
+    private final Map<String, Tenant> tenants;
+    private final ImapHostLimiter imapLimiter;
+
+    public TenantRegistry(AppProps props, ObjectMapper om, ResourceLoader resourceLoader, Clock clock,
+            MeterRegistry meters, FxRates fx, MailProperties mail, MailOutbox outbox, EmailChannel email,
+            WebClient.Builder webClient) {
+        int perHost = Math.max(1, props.tenancy().maxImapConnectionsPerHost());
+        this.imapLimiter = new ImapHostLimiter(perHost);
+        Map<String, Tenant> built = new LinkedHashMap<>();
+        List<AppProps.Tenant> configured = props.tenants() == null ? List.of() : props.tenants();
+        for (AppProps.Tenant t : configured) {
+            validate(t);
+            if (built.containsKey(t.id()))
+                throw new IllegalStateException("테넌트 id 중복: " + t.id());
+            AppProps tp = propsFor(props, t, perHost);
+            MeterRegistry tm = MetricsConfig.forTenant(meters, t.id());
+            var loader = new PreplyRateCacheLoader(tp, new RateIndexStore(tp, om), clock, tm);
+            var gcal = new GcalReader(tp, resourceLoader, new CalendarIndexStore(tp, om), tm);
+            // 빈이 아니라 @PostConstruct 가 불리지 않으므로 직접 등록
+            loader.registerMetrics();
+            gcal.registerMetrics();
+            // 슬롯 대기는 단계 제한 시간 밖에서 하고, 대기 자체도 stageTimeout 까지만 기다린다
+            MailboxSource mailbox = imapLimiter.limit(tp.mail().imap().host(), tp.mail().imap().parallelism(),
+                    props.pipeline().stageTimeout(), loader);
+            outbox.register(tp.mail().user(), mailSender(tp, mail));
+            List<DeliveryChannel> channels = List.of(email, new SlackWebhookChannel(tp, webClient));
+            var ledger = new EarningsLedger(tp);
+            var job = new DailySummaryJob(tp, mailbox, gcal, channels, fx, ledger, clock, tm);
+            built.put(t.id(), new Tenant(t.id(), ZoneId.of(tp.gcal().timeZone()), job, ledger));
+        }
+        this.tenants = Collections.unmodifiableMap(built);
+        if (!tenants.isEmpty())
+            log.info("테넌트 {}개 등록 (동시 실행 {}, IMAP 호스트별 연결 {})", tenants.size(),
+                    props.tenancy().maxConcurrent(), perHost);
+    }
+
+    public Set<String> ids() {
+        return tenants.keySet();
+    }
+
+    public Optional<Tenant> find(String id) {
+        return Optional.ofNullable(tenants.get(id));
+    }
+
+    private static void validate(AppProps.Tenant t) {
+        if (t.id() == null || !TENANT_ID.matcher(t.id()).matches())
+            throw new IllegalStateException("테넌트 id 는 영소문자/숫자/하이픈 32자 이내여야 합니다: " + t.id());
+        if (isBlank(t.mailUser()) || isBlank(t.mailPass()))
+            throw new IllegalStateException("테넌트 " + t.id() + ": mailUser/mailPass 가 필요합니다");
+        if (isBlank(t.calendarId()))
+            throw new IllegalStateException("테넌트 " + t.id() + ": calendarId 가 필요합니다");
+    }
+
+    // 기본 설정 위에 테넌트 항목을 덮어쓴 설정. IDLE 리스너와 자동 실행은 기본 계정 전용이라 끈다.
+    private static AppProps propsFor(AppProps base, AppProps.Tenant t, int perHost) {
+        AppProps.Mail.Imap imap = base.mail().imap();
+        AppProps.Mail.Smtp smtp = base.mail().smtp();
+        AppProps.Gcal gcal = base.gcal();
+        var mail = new AppProps.Mail(t.mailUser(), t.mailPass(),
+                new AppProps.Mail.Imap(or(t.imapHost(), imap.host()), or(t.imapPort(), imap.port()),
+                        imap.partialFetch(), imap.maxBodyBytes(), Math.min(imap.parallelism(), perHost),
+                        imap.windowSize(), false, imap.idleKeepalive()),
+                new AppProps.Mail.Smtp(or(t.smtpHost(), smtp.host()), or(t.smtpPort(), smtp.port()),
+                        or(t.from(), t.mailUser()), t.to() == null ? List.of() : t.to()));
+        var tgcal = new AppProps.Gcal(or(t.credentialsPath(), gcal.credentialsPath()), t.calendarId(),
+                or(t.timeZone(), gcal.timeZone()), gcal.preplySuffix(), gcal.lookBackDays(),
+                gcal.incrementalSync());
+        var storage = new AppProps.Storage(
+                Path.of(base.storage().dir()).resolve(DIR).resolve(t.id()).toString());
+        var webhook = new AppProps.Webhook(t.slackUrl(), base.webhook().timeout(), base.webhook().retries());
+        return new AppProps(mail, webhook, tgcal, base.fx(), storage, base.replay(), base.pipeline(), base.profiling(),
+                base.outbox(), false, List.of(), base.tenancy());
+    }
+
+    // spring.mail.* 의 JavaMail 속성(SSL/인증)은 그대로 쓰고 서버/계정만 테넌트 것으로
+    private static JavaMailSenderImpl mailSender(AppProps tp, MailProperties mail) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost(tp.mail().smtp().host());
+        sender.setPort(tp.mail().smtp().port());
+        sender.setUsername(tp.mail().user());
+        sender.setPassword(tp.mail().pass());
+        sender.setDefaultEncoding(mail.getDefaultEncoding().name());
+        Properties javaMail = new Properties();
+        javaMail.putAll(mail.getProperties());
+        sender.setJavaMailProperties(javaMail);
+        return sender;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static <T> T or(T value, T fallback) {
+        return value == null || (value instanceof String s && s.isBlank()) ? fallback : value;
+    }
+}
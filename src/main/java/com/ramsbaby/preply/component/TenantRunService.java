@@ -0,0 +1,123 @@
+package com.ramsbaby.preply.component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.RunStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 등록된 테넌트({@link TenantRegistry})의 요약을 동시에 실행한다.
+ * - 테넌트마다 가상 스레드 하나로 띄우고, 실제로 도는 파이프라인 수는 tenancy.maxConcurrent 로 제한한다.
+ *   파이프라인은 거의 I/O 대기라 작은 인스턴스에서도 수백 테넌트를 순서대로 흘려보낼 수 있다.
+ * - 같은 테넌트 실행이 진행 중이면 새로 띄우지 않는다. 한 테넌트의 실패/시간 초과는 다른 테넌트에 영향이 없다.
+ * - 테넌트별 마지막 실행 상태(단계별 소요 시간 포함)를 보관하고, summary.tenant 타이머로 내보낸다.
+ */
+@Service
+@Profile("!replay")
+@Slf4j
+public class TenantRunService {
+
+    private final TenantRegistry tenants;
+    private final Clock clock;
+    private final MeterRegistry meters;
+    private final Semaphore slots;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("tenant-run-", 0).factory());
+    private final Map<String, SummaryRunService.Run> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, SummaryRunService.Run> last = new ConcurrentHashMap<>();
+
+    public TenantRunService(TenantRegistry tenants, AppProps props, Clock clock, MeterRegistry meters) {
+        this.tenants = tenants;
+        this.clock = clock;
+        this.meters = meters;
+        this.slots = new Semaphore(Math.max(1, props.tenancy().maxConcurrent()), true);
+    }
+
+    // app.tenancy.cron 시각에 전체 테넌트 실행 ("-" 면 꺼짐)
+    @Scheduled(cron = "${app.tenancy.cron:-}", zone = "${app.gcal.timeZone:Asia/Seoul}")
+    public void scheduled() {
+        if (tenants.ids().isEmpty())
+            return;
+        log.info("테넌트 {}개 요약 실행 시작", tenants.ids().size());
+        submitAll();
+    }
+
+    public Map<String, RunStatus> submitAll() {
+        Map<String, RunStatus> out = new LinkedHashMap<>();
+        for (String id : tenants.ids())
+            submit(id).ifPresent(s -> out.put(id, s));
+        return out;
+    }
+
+    public Optional<RunStatus> submit(String tenantId) {
+        return tenants.find(tenantId).map(t -> inFlight.computeIfAbsent(t.id(), id -> {
+            var run = new SummaryRunService.Run(UUID.randomUUID().toString(), LocalDate.now(clock.withZone(t.zone())));
+            last.put(id, run);
+            executor.execute(() -> execute(t, run));
+            return run;
+        }).status());
+    }
+
+    // 테넌트별 마지막(또는 진행 중) 실행 상태
+    public Map<String, RunStatus> statuses() {
+        Map<String, RunStatus> out = new LinkedHashMap<>();
+        for (String id : tenants.ids()) {
+            SummaryRunService.Run run = last.get(id);
+            if (run != null)
+                out.put(id, run.status());
+        }
+        return out;
+    }
+
+    public Optional<RunStatus> status(String tenantId) {
+        return Optional.ofNullable(last.get(tenantId)).map(SummaryRunService.Run::status);
+    }
+
+    private void execute(TenantRegistry.Tenant tenant, SummaryRunService.Run run) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            run.fail("실행 대기 중 종료");
+            inFlight.remove(tenant.id(), run);
+            return;
+        }
+        Timer.Sample sample = Timer.start(meters);
+        String outcome = "failure";
+        run.start();
+        try {
+            run.succeed(tenant.job().generateAndSend(run::stage).describe());
+            outcome = "success";
+        } catch (Exception e) {
+            log.warn("테넌트 {} 요약 실행 실패: {}", tenant.id(), e.toString());
+            run.fail(e.toString());
+        } finally {
+            slots.release();
+            sample.stop(meters.timer("summary.tenant", "tenant", tenant.id(), "outcome", outcome));
+            inFlight.remove(tenant.id(), run);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
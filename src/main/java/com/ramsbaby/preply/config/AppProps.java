@@ -1,20 +1,76 @@
 package com.ramsbaby.preply.config;
 
+import java.time.Duration;
 import java.util.List;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "app")
-public record AppProps(Mail mail, Gcal gcal, boolean autorun) {
+public record AppProps(Mail mail, Webhook webhook, Gcal gcal, Fx fx, Storage storage, Replay replay, Pipeline pipeline,
+        Profiling profiling, Outbox outbox, boolean autorun, List<Tenant> tenants, Tenancy tenancy) {
     public record Mail(String user, String pass, Imap imap, Smtp smtp) {
-        public record Imap(String host, int port) {
+        // partialFetch: 본문 섹션만 BODY.PEEK 로 가져옴, maxBodyBytes: 섹션당 최대 바이트(0 이하면 전체)
+        // parallelism: fetch/파싱에 쓰는 동시 IMAP 연결 수 (1 이면 단일 연결 순차 처리)
+        // windowSize: 한 번에 fetch/파싱할 UID 개수 (윈도우마다 메시지 캐시를 비움)
+        // idle: IMAP IDLE 로 새 메일을 받아 단가 캐시를 실시간 갱신 (idleKeepalive 마다 NOOP 으로 연결 유지)
+        public record Imap(String host, int port, boolean partialFetch, int maxBodyBytes, int parallelism,
+                int windowSize, boolean idle, Duration idleKeepalive) {
         }
 
         public record Smtp(String host, int port, String from, List<String> to) {
         }
     }
 
+    // slackUrl: Slack Incoming Webhook (비어 있으면 Slack 발송 안 함)
+    // timeout: 시도 1번의 제한 시간, retries: 429/5xx/연결 오류 시 재시도 횟수
+    public record Webhook(String slackUrl, Duration timeout, int retries) {
+    }
+
+    // incrementalSync: syncToken 으로 변경분만 받아 로컬 인덱스(calendar-index.json)에서 조회
     public record Gcal(String credentialsPath, String calendarId, String timeZone, String preplySuffix,
-            int lookBackDays) {
+            int lookBackDays, boolean incrementalSync) {
+    }
+
+    // refreshInterval: 백그라운드 환율 갱신 주기, maxStaleness: 이보다 오래된 환율이면 요청 경로에서 동기 갱신
+    // hedgeDelay: 앞 제공자 응답을 기다렸다가 다음 제공자를 함께 부르기까지의 지연
+    // breakerFailureThreshold/breakerOpenDuration: 연속 실패 n 번이면 그 제공자를 일정 시간 건너뜀
+    public record Fx(Duration refreshInterval, Duration maxStaleness, Duration hedgeDelay,
+            int breakerFailureThreshold, Duration breakerOpenDuration) {
+    }
+
+    // 로컬 상태 파일(인덱스 등) 보관 디렉터리
+    public record Storage(String dir) {
+    }
+
+    // replay 프로필 입력/출력 경로
+    // mailPath: .eml 디렉터리(하위 포함) 또는 mbox 파일, eventsPath: Calendar events.list 응답 JSON,
+    // fxPath: 환율표 JSON, date: 기준 날짜(yyyy-MM-dd, 비어 있으면 오늘), outputDir: 요약 결과 저장 위치
+    public record Replay(String mailPath, String eventsPath, String fxPath, String date, String outputDir) {
+    }
+
+    // 요약 파이프라인: stageTimeout 은 동시에 도는 단계(메일함/캘린더/환율) 각각의 최대 소요 시간
+    public record Pipeline(Duration stageTimeout) {
+    }
+
+    // 요약 실행마다 JFR 녹화(storage/profiles): maxSize 는 1건당 최대 크기, keep 은 보관할 최근 녹화 수
+    public record Profiling(boolean enabled, DataSize maxSize, int keep) {
+    }
+
+    // 요약 메일 아웃박스: batchSize 는 한 SMTP 연결로 이어 보내는 최대 통수, idleTimeout 이 지난 연결은 닫음
+    // 실패하면 retryBackoff 부터 두 배씩 늘려 재시도하고 maxAttempts 번 실패하면 포기
+    public record Outbox(int batchSize, int maxAttempts, Duration retryBackoff, Duration idleTimeout) {
+    }
+
+    // 한 프로세스에서 요약할 튜터 계정. 비어 있는 항목은 위 기본 설정(mail/gcal)을 따르고,
+    // from 이 없으면 mailUser 로 보낸다. slackUrl 은 상속하지 않는다(없으면 Slack 발송 안 함). 상태 파일은 storage.dir/tenants/{id} 에 따로 둔다.
+    public record Tenant(String id, String mailUser, String mailPass, String imapHost, Integer imapPort,
+            String smtpHost, Integer smtpPort, String from, List<String> to, String calendarId,
+            String credentialsPath, String timeZone, String slackUrl) {
+    }
+
+    // maxConcurrent: 동시에 도는 테넌트 파이프라인 수, maxImapConnectionsPerHost: IMAP 서버별 동시 연결 수 상한
+    // cron: 전체 테넌트 요약 실행 시각 ("-" 면 스케줄 없음)
+    public record Tenancy(int maxConcurrent, int maxImapConnectionsPerHost, String cron) {
     }
-}
\ No newline at end of file
+}
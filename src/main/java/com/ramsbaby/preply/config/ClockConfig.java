@@ -0,0 +1,32 @@
+package com.ramsbaby.preply.config;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * "오늘"의 기준 시계. replay 프로필에서는 app.replay.date(비어 있으면 오늘) 00:00 으로 고정해
+ * 과거 날짜를 그대로 다시 돌릴 수 있게 한다.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    @Profile("!replay")
+    public Clock clock(AppProps props) {
+        return Clock.system(ZoneId.of(props.gcal().timeZone()));
+    }
+
+    @Bean
+    @Profile("replay")
+    public Clock replayClock(AppProps props) {
+        ZoneId tz = ZoneId.of(props.gcal().timeZone());
+        String date = props.replay().date();
+        LocalDate day = date == null || date.isBlank() ? LocalDate.now(tz) : LocalDate.parse(date);
+        return Clock.fixed(day.atStartOfDay(tz).toInstant(), tz);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ramsbaby.preply.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+/**
+ * 계정(테넌트)마다 인스턴스가 따로 있는 파이프라인 지표에 tenant 태그를 붙인다.
+ * - 테넌트 인스턴스는 {@link #forTenant} 레지스트리로 등록해 tenant=&lt;id&gt; 가 붙고,
+ *   기본 계정 인스턴스는 이 필터가 tenant=default 를 붙인다. (Prometheus 는 이름이 같은 지표의 태그 키가 같아야 함)
+ * - 태그 값은 설정된 테넌트 수만큼이다.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String TENANT_TAG = "tenant";
+    public static final String DEFAULT_TENANT = "default";
+
+    // 테넌트별 인스턴스가 등록하는 지표 (이름 또는 접두어)
+    private static final List<String> PER_TENANT = List.of(
+            "rate.index.", "calendar.index.", "imap.stage", "imap.messages", "gcal.list", "summary.stage");
+
+    @Bean
+    public MeterFilter tenantTagFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (id.getTag(TENANT_TAG) != null || PER_TENANT.stream().noneMatch(id.getName()::startsWith))
+                    return id;
+                return id.withTag(Tag.of(TENANT_TAG, DEFAULT_TENANT));
+            }
+        };
+    }
+
+    // 테넌트 인스턴스용: 등록하는 지표마다 tenant=<id> 를 붙여 공용 레지스트리에 넘긴다
+    public static MeterRegistry forTenant(MeterRegistry root, String tenantId) {
+        CompositeMeterRegistry registry = new CompositeMeterRegistry(root.config().clock());
+        registry.config().commonTags(TENANT_TAG, tenantId);
+        registry.add(root);
+        return registry;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ramsbaby.preply.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Google Calendar 증분 동기화 상태 (로컬 영속화용).
+ * calendarId 나 version 이 다르거나 syncToken 이 만료(410)되면 전체 동기화한다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CalendarIndex(
+        int version,                          // 인덱스 포맷 버전
+        String calendarId,                    // 동기화한 캘린더
+        String syncToken,                     // 다음 증분 요청에 쓸 nextSyncToken
+        Map<String, Item> events              // 이벤트 id → 제목/시작 시각
+) {
+    public static final int VERSION = 1;
+
+    // startMillis: 시작 시각(epoch ms, 종일 일정은 날짜 00:00 UTC)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Item(String summary, long startMillis) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.ramsbaby.preply.dto;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+public record Compensation(
+        String studentName,            // 정규화된 학생 이름
+        Money money,                   // 보상 금액
+        LocalDate lessonDate,          // 취소된 레슨 날짜
+        ZonedDateTime receivedAt       // 메일 수신 시각
+) {
+}
@@ -0,0 +1,16 @@
+package com.ramsbaby.preply.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+// 하루 한 건 보관하는 환율표 (base 1 단위당 각 통화 환율)
+public record FxDailySnapshot(
+        LocalDate date,
+        String base,
+        Map<String, BigDecimal> rates,
+        Instant asOf,
+        String source
+) {
+}
@@ -0,0 +1,28 @@
+package com.ramsbaby.preply.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 수입 원장의 하루치 기록 (요약 실행 1번 = 1건). 같은 날짜를 다시 실행하면 나중 기록이 이긴다.
+ * krwTotal 은 그날 적용한 환율(fx)로 환산한 합계다.
+ */
+public record LedgerEntry(
+        LocalDate date,
+        Instant recordedAt,
+        List<Line> lines,
+        List<Fx> fx,
+        BigDecimal krwTotal
+) {
+    public static final String LESSON = "LESSON";
+    public static final String COMPENSATION = "COMPENSATION";
+
+    // kind: LESSON(매칭된 레슨) 또는 COMPENSATION(12시간 이내 취소 보상)
+    public record Line(String kind, String student, Money money) {
+    }
+
+    public record Fx(String currency, BigDecimal krwPer, Instant asOf, String source) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.ramsbaby.preply.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 기간 수입 리포트 (원장 롤업에서 바로 계산).
+ * by: day | week(월요일 시작) | month, buckets 는 기록이 있는 구간만 시작일 순으로
+ */
+public record LedgerReport(
+        LocalDate from,
+        LocalDate to,
+        String by,
+        List<Bucket> buckets,
+        Bucket total
+) {
+    // days: 기록이 있는 날 수, byCurrency: 원 통화별 합계, krw: 그날그날 환율로 환산한 원화 합계
+    public record Bucket(LocalDate start, LocalDate end, int days, int lessons, int compensations,
+            Map<String, BigDecimal> byCurrency, BigDecimal krw) {
+    }
+}
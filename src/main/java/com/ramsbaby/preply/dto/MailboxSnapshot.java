@@ -0,0 +1,11 @@
+package com.ramsbaby.preply.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// 메일함 1회 스캔 결과: 단가 + 오늘 레슨 취소 보상
+public record MailboxSnapshot(
+        Map<String, Money> rateByStudent,
+        List<RateEntry> todayCompensations
+) {
+}
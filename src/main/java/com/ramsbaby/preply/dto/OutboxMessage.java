@@ -0,0 +1,24 @@
+package com.ramsbaby.preply.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * 발송 대기 중인 요약 메일 1통 (아웃박스 영속화용).
+ * key 는 계정/수신자/제목/본문으로 만든 멱등 키로, 같은 내용은 한 번만 보내고 Message-ID 로도 쓴다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OutboxMessage(
+        String key,                           // 멱등 키
+        String account,                       // 발송 SMTP 계정 (app.mail.user 또는 테넌트 mailUser)
+        String from,
+        List<String> to,
+        String subject,
+        String body,
+        Instant createdAt,
+        LocalDate date                        // 요약 기준일 (이전 버전이 남긴 레코드에는 없음)
+) {
+}
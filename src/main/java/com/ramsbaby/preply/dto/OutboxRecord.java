@@ -0,0 +1,26 @@
+package com.ramsbaby.preply.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 아웃박스 로그(outbox.jsonl) 한 줄. 같은 key 의 레코드를 순서대로 적용하면 현재 상태가 된다.
+ * op: ENQUEUED(message 포함) → RETRY(attempts, at = 다음 시도 시각, error) → SENT 또는 DEAD
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OutboxRecord(
+        String op,
+        String key,
+        OutboxMessage message,
+        Instant at,
+        int attempts,
+        String error
+) {
+    public static final String ENQUEUED = "ENQUEUED";
+    public static final String RETRY = "RETRY";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+}
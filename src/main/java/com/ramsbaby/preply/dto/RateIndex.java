@@ -0,0 +1,21 @@
+package com.ramsbaby.preply.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * IMAP 단가 인덱스 (로컬 영속화용).
+ * uidValidity 가 바뀌거나 version 이 다르면 전체 재구성한다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RateIndex(
+        int version,                          // 인덱스 포맷 버전
+        long uidValidity,                     // INBOX UIDVALIDITY
+        long highWaterUid,                    // 처리 완료한 최대 UID
+        Map<String, RateEntry> rates,         // 정규화 학생명 → 최신 단가
+        List<Compensation> compensations      // 12시간 이내 취소 보상 (레슨 날짜 포함)
+) {
+    public static final int VERSION = 2;
+}
@@ -0,0 +1,32 @@
+package com.ramsbaby.preply.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 요약 실행 1건의 JFR 녹화 요약.
+ * timeline: 단계/외부 호출 이벤트를 시작 순으로 (offsetMillis = 녹화 시작 기준)
+ * allocatedBytes: 단계 스레드에서 그 구간에 샘플링된 할당량 추정치 (jdk.ObjectAllocationSample 가중치 합)
+ */
+public record RunProfile(
+        String runId,
+        Instant start,
+        Instant end,
+        List<Span> timeline,
+        Mail mail,
+        Gc gc,
+        long unattributedAllocatedBytes) {
+
+    public record Span(String event, String label, long offsetMillis, long durationMillis, String thread,
+            Long allocatedBytes, Map<String, Object> fields) {
+    }
+
+    // 메일 1통 단위 이벤트는 개수가 많아 타임라인 대신 집계로
+    public record Mail(int parsedMessages, Map<String, Integer> outcomes, double avgParseMillis,
+            double maxParseMillis, int bodyFetches, long bodyBytesFetched) {
+    }
+
+    public record Gc(int collections, long totalPauseMillis, long longestPauseMillis) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.ramsbaby.preply.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+// /run/{id} 응답: 요약 실행 1건의 상태, 단계별 소요 시간(ms), 결과
+public record RunStatus(
+        String id,
+        LocalDate date,                 // 요약 기준일
+        String state,                   // QUEUED, RUNNING, SUCCEEDED, FAILED
+        Instant queuedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        Map<String, Long> stageMillis,  // mailbox, calendar, fx, send
+        String result,                  // 성공 시 요약(제목/건수/원화 합계)
+        String error                    // 실패 시 원인
+) {
+}
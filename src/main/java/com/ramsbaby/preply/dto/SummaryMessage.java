@@ -0,0 +1,15 @@
+package com.ramsbaby.preply.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// 발송 채널(메일/Slack 등)에 넘기는 렌더링된 요약 1건
+public record SummaryMessage(
+        LocalDate date,                 // 요약 기준일
+        String account,                 // 발송 메일 계정 (app.mail.user 또는 테넌트 mailUser)
+        String from,
+        List<String> to,
+        String subject,
+        String body
+) {
+}
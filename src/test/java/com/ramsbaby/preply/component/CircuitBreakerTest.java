@@ -0,0 +1,76 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN = Duration.ofMillis(50);
+
+    @Test
+    void 연속_실패가_임계치에_닿으면_열린다() {
+        CircuitBreaker b = new CircuitBreaker(2, OPEN);
+        assertThat(b.tryAcquire()).isTrue();
+        b.onFailure();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        b.onFailure();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(b.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void 성공하면_연속_실패_수가_초기화된다() {
+        CircuitBreaker b = new CircuitBreaker(2, OPEN);
+        b.onFailure();
+        b.onSuccess();
+        b.onFailure();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(b.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void 열린_시간이_지나면_시험_호출_1건만_허용하고_성공하면_닫힌다() throws InterruptedException {
+        CircuitBreaker b = open();
+        Thread.sleep(OPEN.toMillis() + 20);
+
+        assertThat(b.tryAcquire()).isTrue();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(b.tryAcquire()).isFalse();
+
+        b.onSuccess();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(b.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void 시험_호출이_실패하면_임계치와_상관없이_다시_열린다() throws InterruptedException {
+        CircuitBreaker b = new CircuitBreaker(3, OPEN);
+        b.onFailure();
+        b.onFailure();
+        b.onFailure();
+        Thread.sleep(OPEN.toMillis() + 20);
+        assertThat(b.tryAcquire()).isTrue();
+
+        b.onFailure();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(b.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void 임계치가_0_이하면_1로_본다() {
+        CircuitBreaker b = new CircuitBreaker(0, OPEN);
+        b.onFailure();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private static CircuitBreaker open() {
+        CircuitBreaker b = new CircuitBreaker(1, OPEN);
+        b.onFailure();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        return b;
+    }
+}
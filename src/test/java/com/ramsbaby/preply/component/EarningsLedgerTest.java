@@ -0,0 +1,168 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.LedgerEntry;
+import com.ramsbaby.preply.dto.LedgerReport;
+import com.ramsbaby.preply.dto.Money;
+
+class EarningsLedgerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void 같은_날짜를_다시_기록하면_이전_합계를_빼고_새_합계로_바꾼다() {
+        EarningsLedger ledger = ledger();
+        LocalDate d = LocalDate.of(2025, 9, 10);
+        ledger.record(entry(d, "30000", lesson("alice", "18.04"), lesson("bob", "18.04")));
+        ledger.record(entry(d, "20000", compensation("alice", "14.76")));
+
+        assertRerecorded(ledger.report(d, d, "week"));
+        assertRerecorded(ledger.report(d, d, "month"));
+        // 금액은 뒤쪽 0을 떼어 저장하므로 값으로 비교
+        assertThat(ledger.entry(d)).get().extracting(LedgerEntry::krwTotal)
+                .satisfies(krw -> assertThat(krw).isEqualByComparingTo("20000"));
+
+        // 파일에서 다시 읽어도 같은 결과 (나중 레코드가 이김)
+        assertRerecorded(ledger().report(d, d, "week"));
+    }
+
+    private static void assertRerecorded(LedgerReport report) {
+        assertThat(report.buckets()).hasSize(1);
+        LedgerReport.Bucket b = report.buckets().get(0);
+        assertThat(b.days()).isEqualTo(1);
+        assertThat(b.lessons()).isZero();
+        assertThat(b.compensations()).isEqualTo(1);
+        assertThat(b.byCurrency()).containsOnlyKeys("USD");
+        assertThat(b.byCurrency().get("USD")).isEqualByComparingTo("14.76");
+        assertThat(b.krw()).isEqualByComparingTo("20000");
+        assertThat(report.total().krw()).isEqualByComparingTo("20000");
+    }
+
+    @Test
+    void 기간_경계에_걸친_주는_걸친_날만_더하고_구간_날짜는_그대로_둔다() {
+        EarningsLedger ledger = seeded();
+        // 2025-09-11(목) ~ 2025-10-01(수)
+        LedgerReport r = ledger.report(LocalDate.of(2025, 9, 11), LocalDate.of(2025, 10, 1), "week");
+
+        assertThat(r.by()).isEqualTo("week");
+        assertThat(r.buckets()).extracting(LedgerReport.Bucket::start)
+                .containsExactly(LocalDate.of(2025, 9, 8), LocalDate.of(2025, 9, 15), LocalDate.of(2025, 9, 29));
+        LedgerReport.Bucket first = r.buckets().get(0);
+        assertThat(first.end()).isEqualTo(LocalDate.of(2025, 9, 14));
+        assertThat(first.days()).isEqualTo(1); // 9/10 은 from 이전
+        assertThat(first.krw()).isEqualByComparingTo("2000");
+        assertThat(r.buckets().get(1).krw()).isEqualByComparingTo("4000");
+        LedgerReport.Bucket last = r.buckets().get(2);
+        assertThat(last.end()).isEqualTo(LocalDate.of(2025, 10, 5));
+        assertThat(last.days()).isEqualTo(1); // 10/2 는 to 이후
+        assertThat(last.krw()).isEqualByComparingTo("8000");
+
+        assertThat(r.total().start()).isEqualTo(LocalDate.of(2025, 9, 11));
+        assertThat(r.total().end()).isEqualTo(LocalDate.of(2025, 10, 1));
+        assertThat(r.total().days()).isEqualTo(3);
+        assertThat(r.total().krw()).isEqualByComparingTo("14000");
+    }
+
+    @Test
+    void 기간_경계에_걸친_월도_걸친_날만_더하고_빈_구간은_뺀다() {
+        EarningsLedger ledger = seeded();
+        LedgerReport r = ledger.report(LocalDate.of(2025, 9, 11), LocalDate.of(2025, 10, 1), "month");
+
+        // 10월은 10/1 까지만이라 기록이 없어 구간에서 빠진다
+        assertThat(r.buckets()).hasSize(1);
+        LedgerReport.Bucket sep = r.buckets().get(0);
+        assertThat(sep.start()).isEqualTo(LocalDate.of(2025, 9, 1));
+        assertThat(sep.end()).isEqualTo(LocalDate.of(2025, 9, 30));
+        assertThat(sep.days()).isEqualTo(3);
+        assertThat(sep.lessons()).isEqualTo(2);
+        assertThat(sep.compensations()).isEqualTo(1);
+        assertThat(sep.krw()).isEqualByComparingTo("14000");
+
+        // 기간 안에 다 들어가는 월은 롤업 그대로
+        LedgerReport full = ledger.report(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 10, 31), "month");
+        assertThat(full.buckets()).extracting(LedgerReport.Bucket::krw)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("15000"), new BigDecimal("16000"));
+    }
+
+    @Test
+    void 기간을_비우면_기록의_처음과_끝까지_일_단위로_묶는다() {
+        LedgerReport r = seeded().report(null, null, "day");
+
+        assertThat(r.from()).isEqualTo(LocalDate.of(2025, 9, 10));
+        assertThat(r.to()).isEqualTo(LocalDate.of(2025, 10, 2));
+        assertThat(r.buckets()).hasSize(5);
+        assertThat(r.total().byCurrency()).isEqualTo(Map.of("USD", new BigDecimal("5"), "KRW", new BigDecimal("24000")));
+        assertThat(r.total().krw()).isEqualByComparingTo("31000");
+    }
+
+    @Test
+    void 하루_상세는_기록한_그대로_읽는다() {
+        EarningsLedger ledger = ledger();
+        LocalDate d = LocalDate.of(2025, 9, 20);
+        LedgerEntry e = new LedgerEntry(d, Instant.parse("2025-09-20T12:00:00Z"),
+                List.of(lesson("김철수", "18.04"), compensation("bob", "14.76")),
+                List.of(new LedgerEntry.Fx("USD", new BigDecimal("1391.25"), Instant.parse("2025-09-20T00:00:00Z"),
+                        "frankfurter")),
+                new BigDecimal("45631"));
+        ledger.record(e);
+
+        assertThat(ledger().entry(d)).contains(e);
+        assertThat(ledger.entry(d.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void 잘못된_단위나_거꾸로_된_기간은_거부한다() {
+        EarningsLedger ledger = seeded();
+        assertThatThrownBy(() -> ledger.report(null, null, "year")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ledger.report(LocalDate.of(2025, 9, 20), LocalDate.of(2025, 9, 1), "day"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // 9/10(수) 1000, 9/12(금) 2000, 9/15(월) 4000, 9/30(화) 8000, 10/2(목) 16000
+    private EarningsLedger seeded() {
+        EarningsLedger ledger = ledger();
+        ledger.record(entry(LocalDate.of(2025, 9, 10), "1000", lesson("a", "1")));
+        ledger.record(entry(LocalDate.of(2025, 9, 12), "2000", lesson("b", "2")));
+        ledger.record(entry(LocalDate.of(2025, 9, 15), "4000", compensation("c", "2")));
+        ledger.record(entry(LocalDate.of(2025, 9, 30), "8000", lesson("d", "8000", "KRW")));
+        ledger.record(entry(LocalDate.of(2025, 10, 2), "16000", lesson("e", "16000", "KRW")));
+        return ledger;
+    }
+
+    private EarningsLedger ledger() {
+        return new EarningsLedger(new AppProps(null, null, null, null, new AppProps.Storage(dir.toString()), null,
+                null, null, null, false, List.of(), null));
+    }
+
+    private static LedgerEntry entry(LocalDate date, String krw, LedgerEntry.Line... lines) {
+        return new LedgerEntry(date, Instant.parse("2025-10-03T00:00:00Z"), List.of(lines), List.of(),
+                new BigDecimal(krw));
+    }
+
+    private static LedgerEntry.Line lesson(String student, String amount) {
+        return lesson(student, amount, "USD");
+    }
+
+    private static LedgerEntry.Line lesson(String student, String amount, String currency) {
+        return new LedgerEntry.Line(LedgerEntry.LESSON, student, new Money(new BigDecimal(amount), currency));
+    }
+
+    private static LedgerEntry.Line compensation(String student, String amount) {
+        return new LedgerEntry.Line(LedgerEntry.COMPENSATION, student, new Money(new BigDecimal(amount), "USD"));
+    }
+}
@@ -0,0 +1,194 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ramsbaby.preply.config.AppProps;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FxRateServiceHedgeTest {
+
+    private static final Duration LONG = Duration.ofSeconds(30);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void 앞_제공자가_hedgeDelay_안에_답하지_않으면_다음_제공자를_부른다() {
+        FakeProvider slow = new FakeProvider("slow", CompletableFuture::new);
+        FakeProvider fast = new FakeProvider("fast", () -> rates("1390"));
+        FxRateService fx = service(Duration.ofMillis(150), 3, slow, fast);
+
+        long t0 = System.nanoTime();
+        FxRateService.Snapshot s = fx.snapshot("USD");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - t0);
+
+        assertThat(s.source()).isEqualTo("fast");
+        assertThat(s.krwPer()).isEqualByComparingTo("1390");
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+        assertThat(slow.calls()).isEqualTo(1);
+        assertThat(fast.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void 앞_제공자가_빨리_답하면_다음_제공자는_부르지_않는다() throws InterruptedException {
+        FakeProvider first = new FakeProvider("first", () -> rates("1385"));
+        FakeProvider second = new FakeProvider("second", () -> rates("1390"));
+        FxRateService fx = service(Duration.ofMillis(50), 3, first, second);
+
+        assertThat(fx.snapshot("USD").source()).isEqualTo("first");
+        Thread.sleep(150);
+        assertThat(second.calls()).isZero();
+    }
+
+    @Test
+    void 앞_제공자가_실패하면_hedgeDelay_를_기다리지_않고_다음_제공자를_부른다() {
+        FakeProvider broken = new FakeProvider("broken", () -> failed("503"));
+        FakeProvider backup = new FakeProvider("backup", () -> rates("1400"));
+        FxRateService fx = service(LONG, 3, broken, backup);
+
+        long t0 = System.nanoTime();
+        FxRateService.Snapshot s = fx.snapshot("USD");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - t0)).isLessThan(Duration.ofSeconds(5));
+        assertThat(s.source()).isEqualTo("backup");
+        assertThat(backup.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void 제공자가_동기로_던져도_실패로_보고_다음으로_넘어간다() {
+        FakeProvider throwing = new FakeProvider("throwing", () -> {
+            throw new IllegalStateException("boom");
+        });
+        FakeProvider backup = new FakeProvider("backup", () -> rates("1400"));
+        FxRateService fx = service(LONG, 3, throwing, backup);
+
+        assertThat(fx.snapshot("USD").source()).isEqualTo("backup");
+    }
+
+    @Test
+    void 모든_제공자가_실패하고_이전_환율표도_없으면_예외() {
+        FakeProvider a = new FakeProvider("a", () -> failed("a"));
+        FakeProvider b = new FakeProvider("b", () -> CompletableFuture.supplyAsync(() -> {
+            throw new IllegalStateException("b");
+        }));
+        FxRateService fx = service(LONG, 3, a, b);
+
+        assertThatThrownBy(() -> fx.snapshot("USD"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("환율 조회 실패");
+        assertThat(a.calls()).isEqualTo(1);
+        assertThat(b.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void 모든_제공자가_실패하면_마지막_성공값을_계속_쓴다() {
+        AtomicInteger round = new AtomicInteger();
+        FakeProvider flaky = new FakeProvider("flaky",
+                () -> round.get() == 0 ? rates("1380") : failed("down"));
+        FxRateService fx = service(LONG, 10, flaky);
+        assertThat(fx.snapshot("USD").krwPer()).isEqualByComparingTo("1380");
+
+        round.incrementAndGet();
+        fx.scheduledRefresh();
+
+        assertThat(flaky.calls()).isEqualTo(2);
+        FxRateService.Snapshot s = fx.snapshot("USD");
+        assertThat(s.source()).isEqualTo("flaky");
+        assertThat(s.krwPer()).isEqualByComparingTo("1380");
+    }
+
+    @Test
+    void 브레이커가_열린_제공자는_건너뛴다() {
+        FakeProvider broken = new FakeProvider("broken", () -> failed("503"));
+        FakeProvider backup = new FakeProvider("backup", () -> rates("1400"));
+        FxRateService fx = service(LONG, 1, broken, backup);
+        assertThat(fx.snapshot("USD").source()).isEqualTo("backup");
+
+        fx.scheduledRefresh();
+        fx.scheduledRefresh();
+
+        assertThat(broken.calls()).isEqualTo(1);
+        assertThat(backup.calls()).isEqualTo(3);
+    }
+
+    @Test
+    void 성공과_실패가_동시에_끝나도_승자를_버리지_않는다() {
+        for (int i = 0; i < 200; i++) {
+            FakeProvider failing = new FakeProvider("failing", () -> CompletableFuture.supplyAsync(() -> {
+                throw new IllegalStateException("down");
+            }));
+            FakeProvider ok = new FakeProvider("ok", () -> CompletableFuture.supplyAsync(
+                    () -> Map.of("KRW", new BigDecimal("1400"))));
+            // 저장된 환율표로 시작하지 않도록 반복마다 저장 위치를 따로 둔다
+            FxRateService fx = service(dir.resolve("run-" + i), Duration.ZERO, 3, failing, ok);
+
+            assertThat(fx.snapshot("USD").source()).as("반복 %d", i).isEqualTo("ok");
+        }
+    }
+
+    private FxRateService service(Duration hedgeDelay, int breakerThreshold, FxProvider... providers) {
+        return service(dir, hedgeDelay, breakerThreshold, providers);
+    }
+
+    private static FxRateService service(Path storage, Duration hedgeDelay, int breakerThreshold,
+            FxProvider... providers) {
+        AppProps props = new AppProps(null, null,
+                new AppProps.Gcal(null, null, "Asia/Seoul", null, 0, false),
+                new AppProps.Fx(Duration.ofMinutes(20), Duration.ofHours(1), hedgeDelay, breakerThreshold, LONG),
+                new AppProps.Storage(storage.toString()), null, null, null, null, false, List.of(), null);
+        FxRateService service = new FxRateService(props, Arrays.asList(providers), new SimpleMeterRegistry(),
+                new FxSnapshotStore(props), Clock.systemUTC());
+        service.registerMetrics();
+        return service;
+    }
+
+    private static CompletableFuture<Map<String, BigDecimal>> rates(String krw) {
+        return CompletableFuture.completedFuture(Map.of("KRW", new BigDecimal(krw)));
+    }
+
+    private static CompletableFuture<Map<String, BigDecimal>> failed(String why) {
+        return CompletableFuture.failedFuture(new IllegalStateException(why));
+    }
+
+    private static final class FakeProvider implements FxProvider {
+        private final String name;
+        private final Supplier<CompletableFuture<Map<String, BigDecimal>>> answer;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        FakeProvider(String name, Supplier<CompletableFuture<Map<String, BigDecimal>>> answer) {
+            this.name = name;
+            this.answer = answer;
+        }
+
+        int calls() {
+            return calls.get();
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public CompletableFuture<Map<String, BigDecimal>> fetch(String base) {
+            calls.incrementAndGet();
+            return answer.get();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HtmlTextTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = { "booking-ko.html", "booking-en.html", "cancellation-ko.html", "booking-ko.txt" })
+    void 픽스처는_Jsoup_추출과_같은_텍스트가_된다(String fixture) throws IOException {
+        String html = fixture(fixture);
+        assertThat(HtmlText.extract(html)).isEqualTo(jsoupText(html));
+    }
+
+    @Test
+    void 예약_메일_본문을_한_줄로_정규화한다() throws IOException {
+        assertThat(HtmlText.extract(fixture("booking-ko.html"))).isEqualTo(
+                "Preply 학생: Camila J. 레슨 시간: 9월 26일 오후 7:00 비용: $36.00 레슨 보기 Preply Inc. © 2025 · preply.com");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+            "a&nbsp;b|a b",
+            "a&amp;lt;b|a&lt;b",
+            "&lt;b&gt;|<b>",
+            "&quot;x&quot; &apos;y&apos;|\"x\" 'y'",
+            "&#54617;&#xC0DD;|학생",
+            "&#X1F600;|😀",
+            "AT&T|AT&T",
+            "a &foo; b|a &foo; b",
+            "a & b|a & b",
+            "&#;|&#;",
+            "&#0;|&#0;",
+            "&#x110000;|&#x110000;",
+            "&amp|&amp",
+            "₩&won;|₩₩",
+    })
+    void 엔티티를_디코딩하고_모르는_것은_그대로_둔다(String in, String expected) {
+        assertThat(HtmlText.extract(in)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+            "<b>ab</b><i>cd</i>|abcd",
+            "<p>a</p><p>b</p>|a b",
+            "a<br>b<br/>c|a b c",
+            "<div>a</div>b|a b",
+            "x<script type=\"text/javascript\">if (a < b) { s = '</b>'; }</script>y|x y",
+            "x<SCRIPT>alert(1)</Script >y|x y",
+            "x<style>p > b {}</style>y|x y",
+            "x<!-- a <b> c -->y|xy",
+            "<a title=\"a > b\" href='c>d'>link</a>|link",
+            "<!DOCTYPE html><?xml version=\"1.0\"?>t|t",
+            "a < b|a < b",
+            "a <3 b|a <3 b",
+            "</>x|x",
+            "a</3 b>c|ac",
+            "<span>a</span><button>b</button><tt>c</tt>|abc",
+            "<table><tr><td>a</td><td>b</td></tr></table>|a b",
+            "<h1>a</h1><li>b</li>|a b",
+    })
+    void 태그와_주석과_스크립트를_걷어낸다(String in, String expected) {
+        assertThat(HtmlText.extract(in)).isEqualTo(expected);
+        assertThat(HtmlText.extract(in)).isEqualTo(jsoupText(in));
+    }
+
+    @Test
+    void 공백과_보이지_않는_문자를_정리한다() {
+        String in = "﻿  a  b c\tc\r\n\u000Bd\u0001e​f‌‍⁠g­h  ";
+        assertThat(HtmlText.extract(in)).isEqualTo("a b c c d efgh");
+        assertThat(HtmlText.extract(in)).isEqualTo(cleanText(in));
+        assertThat(HtmlText.extract(null)).isEmpty();
+        assertThat(HtmlText.extract("   ")).isEmpty();
+    }
+
+    @Test
+    void 잘린_본문도_예외_없이_앞부분만_추출한다() throws IOException {
+        String html = fixture("booking-ko.html");
+        for (int i = 0; i <= html.length(); i++) {
+            String prefix = html.substring(0, i);
+            assertThatCode(() -> HtmlText.extract(prefix)).as("%d자에서 자름", i).doesNotThrowAnyException();
+        }
+        // 태그/엔티티/주석/스크립트 중간에서 끊긴 경우
+        assertThat(HtmlText.extract("<p>학생: Camila</p><td style=\"pad")).isEqualTo("학생: Camila");
+        assertThat(HtmlText.extract("비용: $36.00&nb")).isEqualTo("비용: $36.00&nb");
+        assertThat(HtmlText.extract("a<!-- header")).isEqualTo("a");
+        assertThat(HtmlText.extract("a<script>var x = 1;")).isEqualTo("a");
+        assertThat(HtmlText.extract("a<")).isEqualTo("a<");
+    }
+
+    // 기존(Jsoup) 경로: Jsoup.parse(html).text() 뒤에 PreplyRateCacheLoader.cleanText 를 적용하던 결과
+    static String jsoupText(String html) {
+        return cleanText(Jsoup.parse(html).text());
+    }
+
+    private static String cleanText(String s) {
+        if (s == null)
+            return "";
+        return s
+                .replace(' ', ' ')
+                .replace(' ', ' ')
+                .replaceAll("[\\u200B\\u200C\\u200D\\uFEFF\\u2060\\u00AD]", "")
+                .replaceAll("[\\s\\u0000-\\u001F]+", " ")
+                .trim();
+    }
+
+    static String fixture(String name) throws IOException {
+        try (InputStream in = HtmlTextTest.class.getResourceAsStream("/mail/" + name)) {
+            if (in == null)
+                throw new IllegalStateException("픽스처 없음: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
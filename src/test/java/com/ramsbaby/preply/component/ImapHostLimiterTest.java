@@ -0,0 +1,89 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.ramsbaby.preply.dto.MailboxSnapshot;
+
+class ImapHostLimiterTest {
+
+    private static final Duration SHORT = Duration.ofMillis(100);
+    private static final MailboxSnapshot EMPTY = new MailboxSnapshot(Map.of(), List.of());
+    private static final MailboxSource SOURCE = date -> EMPTY;
+
+    @Test
+    void 같은_호스트의_테넌트끼리_슬롯을_나눠_쓴다() {
+        ImapHostLimiter limiter = new ImapHostLimiter(2);
+        MailboxSource a = limiter.limit("imap.gmail.com", 2, SHORT, SOURCE);
+        MailboxSource b = limiter.limit("IMAP.Gmail.com", 1, SHORT, SOURCE);
+
+        MailboxSource.Permit held = a.acquire();
+        assertThatThrownBy(b::acquire)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("IMAP 연결 슬롯을")
+                .hasMessageContaining("IMAP.Gmail.com");
+
+        held.close();
+        b.acquire().close();
+    }
+
+    @Test
+    void 다른_호스트는_따로_센다() {
+        ImapHostLimiter limiter = new ImapHostLimiter(1);
+        MailboxSource a = limiter.limit("imap.gmail.com", 1, SHORT, SOURCE);
+        MailboxSource b = limiter.limit("imap.naver.com", 1, SHORT, SOURCE);
+
+        try (MailboxSource.Permit pa = a.acquire(); MailboxSource.Permit pb = b.acquire()) {
+            assertThat(b.loadSnapshot(LocalDate.of(2025, 9, 20))).isSameAs(EMPTY);
+        }
+    }
+
+    @Test
+    void 연결_수는_호스트_상한으로_잘린다() {
+        ImapHostLimiter limiter = new ImapHostLimiter(2);
+        MailboxSource greedy = limiter.limit("imap.gmail.com", 8, SHORT, SOURCE);
+
+        MailboxSource.Permit first = greedy.acquire();
+        assertThatThrownBy(greedy::acquire).isInstanceOf(IllegalStateException.class);
+        first.close();
+        greedy.acquire().close();
+    }
+
+    @Test
+    void 두_번_닫아도_한_번만_반납한다() {
+        ImapHostLimiter limiter = new ImapHostLimiter(1);
+        MailboxSource source = limiter.limit("imap.gmail.com", 1, SHORT, SOURCE);
+
+        MailboxSource.Permit p = source.acquire();
+        p.close();
+        p.close();
+
+        // 슬롯이 2개로 불어났다면 두 번째 acquire 도 성공한다
+        MailboxSource.Permit again = source.acquire();
+        assertThatThrownBy(source::acquire).isInstanceOf(IllegalStateException.class);
+        again.close();
+    }
+
+    @Test
+    void 기다리던_acquire는_반납되면_슬롯을_얻는다() throws Exception {
+        ImapHostLimiter limiter = new ImapHostLimiter(1);
+        MailboxSource source = limiter.limit("imap.gmail.com", 1, Duration.ofSeconds(5), SOURCE);
+
+        MailboxSource.Permit held = source.acquire();
+        CompletableFuture<MailboxSource.Permit> waiter = CompletableFuture.supplyAsync(source::acquire);
+        Thread.sleep(50);
+        assertThat(waiter).isNotDone();
+
+        held.close();
+        waiter.get(2, TimeUnit.SECONDS).close();
+    }
+}
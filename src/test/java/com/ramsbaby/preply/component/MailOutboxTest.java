@@ -0,0 +1,251 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.OutboxMessage;
+import com.ramsbaby.preply.dto.OutboxRecord;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+class MailOutboxTest {
+
+    private static final String ACCOUNT = "tutor@example.com";
+    private static final String[] TO = { "me@example.com" };
+    private static final LocalDate DATE = LocalDate.of(2025, 9, 20);
+
+    @TempDir
+    Path dir;
+
+    private final List<MailOutbox> started = new ArrayList<>();
+
+    @AfterEach
+    void stopAll() {
+        started.forEach(MailOutbox::stop);
+    }
+
+    @Test
+    void 같은_메일은_대기_중에도_발송_뒤에도_다시_넣지_않는다() throws Exception {
+        FakeSender sender = new FakeSender(m -> false);
+        MailOutbox outbox = outbox(sender, 5);
+        String first = outbox.enqueue(ACCOUNT, ACCOUNT, TO, "요약 (2025-09-20)", "본문", DATE);
+        String second = outbox.enqueue(ACCOUNT, ACCOUNT, TO, "요약 (2025-09-20)", "본문", DATE);
+        assertThat(second).isEqualTo(first);
+        assertThat(ops(first)).containsExactly(OutboxRecord.ENQUEUED);
+
+        start(outbox);
+        assertThat(outbox.awaitDrained(Duration.ofSeconds(5))).isTrue();
+        assertThat(sender.subjects).containsExactly("요약 (2025-09-20)");
+        assertThat(ops(first)).containsExactly(OutboxRecord.ENQUEUED, OutboxRecord.SENT);
+
+        // 발송 뒤에 다시 넣어도, 재시작한 뒤에 다시 넣어도 건너뛴다
+        assertThat(outbox.enqueue(ACCOUNT, ACCOUNT, TO, "요약 (2025-09-20)", "본문", DATE)).isEqualTo(first);
+        MailOutbox restarted = outbox(sender, 5);
+        assertThat(restarted.enqueue(ACCOUNT, ACCOUNT, TO, "요약 (2025-09-20)", "본문", DATE)).isEqualTo(first);
+        start(restarted);
+        assertThat(restarted.awaitDrained(Duration.ofSeconds(1))).isTrue();
+        assertThat(sender.subjects).hasSize(1);
+        assertThat(ops(first)).containsExactly(OutboxRecord.SENT);
+
+        // 내용이 다르면 다른 키
+        assertThat(outbox.enqueue(ACCOUNT, ACCOUNT, TO, "요약 (2025-09-20)", "본문2", DATE)).isNotEqualTo(first);
+    }
+
+    @Test
+    void 멱등_키를_Message_ID_로_쓰고_기준일_헤더를_붙인다() throws Exception {
+        FakeSender sender = new FakeSender(m -> false);
+        MailOutbox outbox = start(outbox(sender, 5));
+        String key = outbox.enqueue(ACCOUNT, ACCOUNT, TO, "요약", "본문", DATE);
+        assertThat(outbox.awaitDrained(Duration.ofSeconds(5))).isTrue();
+
+        MimeMessage sent = sender.messages.get(0);
+        assertThat(sent.getMessageID()).isEqualTo("<" + key + "@preply-summary>");
+        assertThat(sent.getHeader(MailOutbox.SUMMARY_DATE_HEADER, null)).isEqualTo("2025-09-20");
+    }
+
+    @Test
+    void 재시작하면_RETRY_까지_적용한_대기열을_복구한다() throws Exception {
+        Instant past = Instant.now().minusSeconds(60);
+        OutboxStore store = store();
+        OutboxMessage failing = message("failing", past);
+        OutboxMessage later = message("later", past);
+        OutboxMessage ok = message("ok", past);
+        OutboxMessage done = message("done", past);
+        OutboxMessage dead = message("dead", past);
+        store.append(enqueued(failing));
+        store.append(new OutboxRecord(OutboxRecord.RETRY, failing.key(), null, past, 2, "timeout"));
+        store.append(enqueued(later));
+        store.append(new OutboxRecord(OutboxRecord.RETRY, later.key(), null, Instant.now().plusSeconds(3600), 1,
+                "timeout"));
+        store.append(enqueued(ok));
+        store.append(new OutboxRecord(OutboxRecord.RETRY, ok.key(), null, past, 1, "timeout"));
+        store.append(enqueued(done));
+        store.append(new OutboxRecord(OutboxRecord.SENT, done.key(), null, past, 0, null));
+        store.append(enqueued(dead));
+        store.append(new OutboxRecord(OutboxRecord.DEAD, dead.key(), null, past, 3, "boom"));
+
+        FakeSender sender = new FakeSender(m -> m.equals("failing"));
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        MailOutbox outbox = outbox(sender, 3, meters);
+        assertThat(meters.get("outbox.pending").gauge().value()).isEqualTo(3);
+        // 복구하면서 압축: DEAD 는 빠지고 SENT 는 멱등 확인용으로 남는다
+        assertThat(ops(dead.key())).isEmpty();
+        assertThat(ops(done.key())).containsExactly(OutboxRecord.SENT);
+        assertThat(ops(later.key())).containsExactly(OutboxRecord.ENQUEUED, OutboxRecord.RETRY);
+
+        start(outbox);
+        waitUntil(() -> meters.get("outbox.pending").gauge().value() == 1);
+
+        // 이미 2번 실패한 메일은 1번 더 실패하면 maxAttempts(3) 에 닿아 DEAD
+        assertThat(sender.subjects).containsExactlyInAnyOrder("failing", "ok");
+        assertThat(last(failing.key())).satisfies(r -> {
+            assertThat(r.op()).isEqualTo(OutboxRecord.DEAD);
+            assertThat(r.attempts()).isEqualTo(3);
+        });
+        assertThat(last(ok.key()).op()).isEqualTo(OutboxRecord.SENT);
+        // 다음 시도 시각이 남은 메일은 그대로 기다린다
+        assertThat(last(later.key()).op()).isEqualTo(OutboxRecord.RETRY);
+        assertThat(outbox.enqueue(ACCOUNT, ACCOUNT, TO, "done", "본문", DATE)).isEqualTo(done.key());
+    }
+
+    @Test
+    void maxAttempts_번_실패하면_두_배씩_늦춰_재시도하다가_DEAD() throws Exception {
+        FakeSender sender = new FakeSender(m -> true);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        MailOutbox outbox = start(outbox(sender, 3, meters));
+        String key = outbox.enqueue(ACCOUNT, ACCOUNT, TO, "요약", "본문", DATE);
+
+        assertThat(outbox.awaitDrained(Duration.ofSeconds(5))).isTrue();
+        assertThat(sender.subjects).hasSize(3);
+        assertThat(ops(key)).containsExactly(OutboxRecord.ENQUEUED, OutboxRecord.RETRY, OutboxRecord.RETRY,
+                OutboxRecord.DEAD);
+        assertThat(store().load().stream().filter(r -> r.key().equals(key)).map(OutboxRecord::attempts))
+                .containsExactly(0, 1, 2, 3);
+        // retryBackoff 50ms → 100ms
+        assertThat(Duration.between(sender.at.get(0), sender.at.get(1))).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(Duration.between(sender.at.get(1), sender.at.get(2))).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(meters.get("outbox.delivery").tag("outcome", "retry").counter().count()).isEqualTo(2);
+        assertThat(meters.get("outbox.delivery").tag("outcome", "dead").counter().count()).isEqualTo(1);
+
+        // 포기한 메일은 다시 넣을 수 있다 (워커가 곧바로 다시 시도할 수 있으니 DEAD 바로 다음 기록만 본다)
+        assertThat(outbox.enqueue(ACCOUNT, ACCOUNT, TO, "요약", "본문", DATE)).isEqualTo(key);
+        assertThat(store().load().stream().filter(r -> r.key().equals(key)).skip(4).findFirst().orElseThrow())
+                .extracting(OutboxRecord::op, OutboxRecord::attempts)
+                .containsExactly(OutboxRecord.ENQUEUED, 0);
+    }
+
+    @Test
+    void 등록되지_않은_계정의_메일은_실패로_처리한다() throws Exception {
+        FakeSender sender = new FakeSender(m -> false);
+        MailOutbox outbox = start(outbox(sender, 1));
+        String key = outbox.enqueue("other@example.com", "other@example.com", TO, "요약", "본문", DATE);
+
+        assertThat(outbox.awaitDrained(Duration.ofSeconds(5))).isTrue();
+        assertThat(sender.subjects).isEmpty();
+        assertThat(last(key).error()).contains("등록되지 않은 발송 계정");
+    }
+
+    private MailOutbox outbox(FakeSender sender, int maxAttempts) {
+        return outbox(sender, maxAttempts, new SimpleMeterRegistry());
+    }
+
+    private MailOutbox outbox(FakeSender sender, int maxAttempts, SimpleMeterRegistry meters) {
+        MailOutbox outbox = new MailOutbox(props(maxAttempts), store(), meters, sender);
+        outbox.recover();
+        return outbox;
+    }
+
+    private MailOutbox start(MailOutbox outbox) {
+        started.add(outbox);
+        outbox.start();
+        return outbox;
+    }
+
+    private AppProps props(int maxAttempts) {
+        return new AppProps(new AppProps.Mail(ACCOUNT, null, null, null), null, null, null,
+                new AppProps.Storage(dir.toString()), null, null, null,
+                new AppProps.Outbox(10, maxAttempts, Duration.ofMillis(50), Duration.ofSeconds(1)), false, List.of(),
+                null);
+    }
+
+    private OutboxStore store() {
+        ObjectMapper om = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new OutboxStore(props(1), om);
+    }
+
+    private List<String> ops(String key) {
+        return store().load().stream().filter(r -> r.key().equals(key)).map(OutboxRecord::op).toList();
+    }
+
+    private OutboxRecord last(String key) {
+        return store().load().stream().filter(r -> r.key().equals(key)).reduce((a, b) -> b).orElseThrow();
+    }
+
+    private static OutboxMessage message(String subject, Instant createdAt) {
+        return new OutboxMessage(MailOutbox.key(ACCOUNT, TO, subject, "본문"), ACCOUNT, ACCOUNT, List.of(TO), subject,
+                "본문", createdAt, DATE);
+    }
+
+    private static OutboxRecord enqueued(OutboxMessage m) {
+        return new OutboxRecord(OutboxRecord.ENQUEUED, m.key(), m, m.createdAt(), 0, null);
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier done) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!done.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("5초 안에 끝나지 않음").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /** 보낸 메일을 기록하고, 제목이 fail 조건에 맞으면 SMTP 오류로 실패하는 발송기 */
+    private static final class FakeSender extends JavaMailSenderImpl {
+        private final Predicate<String> fail;
+        private final List<String> subjects = new CopyOnWriteArrayList<>();
+        private final List<MimeMessage> messages = new CopyOnWriteArrayList<>();
+        private final List<Instant> at = new CopyOnWriteArrayList<>();
+
+        FakeSender(Predicate<String> fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            for (MimeMessage m : mimeMessages) {
+                String subject;
+                try {
+                    // JavaMailSenderImpl.doSend 처럼 보내기 전에 헤더(Message-ID 등)를 확정
+                    m.saveChanges();
+                    subject = m.getSubject();
+                } catch (MessagingException e) {
+                    throw new IllegalStateException(e);
+                }
+                at.add(Instant.now());
+                subjects.add(subject);
+                if (fail.test(subject))
+                    throw new MailSendException("421 try again later");
+                messages.add(m);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ramsbaby.preply.component;
+
+import static com.ramsbaby.preply.component.HtmlTextTest.fixture;
+import static com.ramsbaby.preply.component.HtmlTextTest.jsoupText;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.ramsbaby.preply.dto.Compensation;
+import com.ramsbaby.preply.dto.RateEntry;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+class PreplyMailParserTest {
+
+    private static final ZonedDateTime RECEIVED = ZonedDateTime.parse("2025-09-20T10:00:00+09:00[Asia/Seoul]");
+    private static final ZonedDateTime YEAR_END = ZonedDateTime.parse("2025-12-30T10:00:00+09:00[Asia/Seoul]");
+    private static final String CANCEL_SUBJECT = "Sofia R. 학생이 수업을 취소했습니다";
+
+    @Test
+    void 국문_예약_메일() throws Exception {
+        RateEntry e = booking("Camila J. 학생이 레슨을 예약했어요", fixture("booking-ko.html")).orElseThrow();
+
+        assertThat(e.studentName()).isEqualTo("Camila J.");
+        assertThat(e.money().amount()).isEqualByComparingTo("29.52"); // 36.00 × 0.82
+        assertThat(e.money().currency()).isEqualTo("USD");
+        assertThat(e.receivedAt()).isEqualTo(RECEIVED);
+    }
+
+    @Test
+    void 영문_예약_메일_엔티티_이름과_통화_코드() throws Exception {
+        RateEntry e = booking("Zoë O'Brien scheduled a new lesson", fixture("booking-en.html")).orElseThrow();
+
+        assertThat(e.studentName()).isEqualTo("Zoë O'Brien");
+        assertThat(e.money().amount()).isEqualByComparingTo("1025"); // 1,250.00 × 0.82
+        assertThat(e.money().currency()).isEqualTo("KRW");
+    }
+
+    @Test
+    void 평문_예약_메일() throws Exception {
+        RateEntry e = booking("Camila J. 학생이 레슨을 예약했어요", fixture("booking-ko.txt")).orElseThrow();
+
+        assertThat(e.studentName()).isEqualTo("Camila J.");
+        assertThat(e.money().amount()).isEqualByComparingTo("29.52");
+        assertThat(e.money().currency()).isEqualTo("USD");
+    }
+
+    @Test
+    void 금액이나_학생이_없으면_예약으로_보지_않는다() {
+        assertThat(booking("x", "<p>학생: Camila J.</p><p>레슨 시간: 9월 26일</p>")).isEmpty();
+        assertThat(booking("x", "<p>비용: $36.00</p>")).isEmpty();
+    }
+
+    @Test
+    void 취소_보상_메일_연말_수신이면_레슨은_다음_해() throws Exception {
+        Compensation c = cancellation(CANCEL_SUBJECT, fixture("cancellation-ko.html"), YEAR_END).orElseThrow();
+
+        assertThat(c.studentName()).isEqualTo("sofia"); // 별칭/성 이니셜 제거
+        assertThat(c.money().amount()).isEqualByComparingTo("18.04"); // 22.00 × 0.82
+        assertThat(c.money().currency()).isEqualTo("USD");
+        assertThat(c.lessonDate()).isEqualTo(LocalDate.of(2026, 1, 2));
+        assertThat(c.receivedAt()).isEqualTo(YEAR_END);
+    }
+
+    @Test
+    void 취소_보상_본문에_학생_라벨이_없으면_제목에서_이름을_찾는다() {
+        String html = "<p>레슨을 예정된 시작 시간 12시간 전에 취소했습니다.</p><p>레슨: 9월 19일</p>"
+                + "<p>레슨 비용 $&nbsp;36.00 을 지불해 드립니다.</p>";
+        Compensation c = cancellation("Roth 학생이 수업을 취소했습니다", html, RECEIVED).orElseThrow();
+
+        assertThat(c.studentName()).isEqualTo("roth");
+        assertThat(c.money().amount()).isEqualByComparingTo("29.52");
+        assertThat(c.lessonDate()).isEqualTo(LocalDate.of(2025, 9, 19));
+    }
+
+    @Test
+    void 보상_문구가_없는_취소_메일은_무시한다() {
+        String html = "<p>Sofia 학생이 수업을 취소했습니다.</p><p>레슨: 9월 19일</p><p>22.00 $</p>";
+        assertThat(cancellation(CANCEL_SUBJECT, html, RECEIVED)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "booking-ko.html", "booking-en.html", "booking-ko.txt", "cancellation-ko.html" })
+    void Jsoup_으로_텍스트화한_본문과_같은_결과로_파싱한다(String name) throws Exception {
+        String body = fixture(name);
+        String streamed = PreplyMailParser.toText(body);
+        String jsoup = jsoupText(body);
+
+        assertThat(PreplyMailParser.BOOKING.parse("s", streamed, RECEIVED))
+                .isEqualTo(PreplyMailParser.BOOKING.parse("s", jsoup, RECEIVED));
+        assertThat(PreplyMailParser.CANCELLATION_COMPENSATION.parse(CANCEL_SUBJECT, streamed, YEAR_END))
+                .isEqualTo(PreplyMailParser.CANCELLATION_COMPENSATION.parse(CANCEL_SUBJECT, jsoup, YEAR_END));
+    }
+
+    @Test
+    void 잘린_본문은_예외_없이_읽힌_만큼만_파싱한다() throws Exception {
+        String html = fixture("booking-ko.html");
+        for (int i = 0; i <= html.length(); i++) {
+            String prefix = html.substring(0, i);
+            assertThatCode(() -> booking("s", prefix)).as("%d자에서 자름", i).doesNotThrowAnyException();
+        }
+
+        // 금액 뒤에서 잘리면 그대로 파싱 (부분 fetch 의 maxBodyBytes)
+        int afterPrice = html.indexOf("36.00</b>") + "36.00".length();
+        assertThat(booking("s", html.substring(0, afterPrice))).get()
+                .satisfies(e -> assertThat(e.money().amount()).isEqualByComparingTo("29.52"));
+        assertThat(booking("s", html.substring(0, afterPrice + 3))).get()
+                .satisfies(e -> assertThat(e.studentName()).isEqualTo("Camila J."));
+        // 금액 전에서 잘리면 예약으로 보지 않는다
+        assertThat(booking("s", html.substring(0, html.indexOf("비용:")))).isEmpty();
+    }
+
+    @Test
+    void MIME_본문은_HTML_파트를_우선한다() throws Exception {
+        MimeMessage msg;
+        try (InputStream in = PreplyMailParserTest.class.getResourceAsStream("/mail/cancellation-ko.eml")) {
+            msg = new MimeMessage(Session.getInstance(new Properties()), in);
+        }
+        assertThat(msg.getSubject()).isEqualTo(CANCEL_SUBJECT);
+        assertThat(PreplyMailParser.CANCELLATION_COMPENSATION.accepts(msg.getSubject())).isTrue();
+        assertThat(PreplyMailParser.BOOKING.accepts(msg.getSubject())).isFalse();
+
+        String text = PreplyMailParser.toText(PreplyMailParser.bodyOf(msg));
+        assertThat(text).startsWith("Preply Sofia R. 학생이 레슨을");
+        assertThat(PreplyMailParser.CANCELLATION_COMPENSATION.parse(msg.getSubject(), text, YEAR_END)).get()
+                .satisfies(c -> assertThat(c.money().amount()).isEqualByComparingTo("18.04"));
+    }
+
+    @Test
+    void 제목_키워드로_템플릿을_고른다() {
+        assertThat(PreplyMailParser.BOOKING.accepts("Camila J. 학생이 레슨을 예약했어요")).isTrue();
+        assertThat(PreplyMailParser.BOOKING.accepts("Ana S. scheduled a new lesson")).isTrue();
+        assertThat(PreplyMailParser.BOOKING.accepts(null)).isFalse();
+        assertThat(PreplyMailParser.TEMPLATES.stream().filter(t -> t.accepts("주간 리포트"))).isEmpty();
+    }
+
+    @Test
+    void 통화_표기를_코드로_맞춘다() {
+        assertThat(PreplyMailParser.normalizeCurrency("$")).isEqualTo("USD");
+        assertThat(PreplyMailParser.normalizeCurrency("₩")).isEqualTo("KRW");
+        assertThat(PreplyMailParser.normalizeCurrency("krw")).isEqualTo("KRW");
+        assertThat(PreplyMailParser.normalizeCurrency(null)).isEqualTo("USD");
+        assertThat(PreplyMailParser.normalizeCurrency("eur")).isEqualTo("EUR");
+    }
+
+    private static Optional<RateEntry> booking(String subject, String body) {
+        return PreplyMailParser.BOOKING.parse(subject, PreplyMailParser.toText(body), RECEIVED);
+    }
+
+    private static Optional<Compensation> cancellation(String subject, String body, ZonedDateTime at) {
+        return PreplyMailParser.CANCELLATION_COMPENSATION.parse(subject, PreplyMailParser.toText(body), at);
+    }
+}
@@ -0,0 +1,148 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RecordFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void 덜_쓰인_꼬리_레코드는_잘라내고_다음_append_는_정상_레코드_뒤에_붙는다() throws IOException {
+        Path file = dir.resolve("sub/records.bin");
+        RecordFile.append(file, bytes("first"));
+        long second = RecordFile.append(file, bytes("second"));
+        long good = Files.size(file);
+        // 길이는 썼지만 본문 도중에 끊긴 레코드
+        Files.write(file, new byte[] { 0, 0, 0, 20, 'x', 'y' }, StandardOpenOption.APPEND);
+
+        assertThat(readAll(file)).containsExactly("first", "second");
+        assertThat(Files.size(file)).isEqualTo(good);
+
+        long third = RecordFile.append(file, bytes("third"));
+        assertThat(third).isEqualTo(good);
+        assertThat(readAll(file)).containsExactly("first", "second", "third");
+        assertThat(new String(RecordFile.read(file, second), StandardCharsets.UTF_8)).isEqualTo("second");
+    }
+
+    @Test
+    void CRC_가_맞지_않는_레코드부터_뒤를_잘라낸다() throws IOException {
+        Path file = dir.resolve("records.bin");
+        RecordFile.append(file, bytes("first"));
+        long broken = RecordFile.append(file, bytes("second"));
+        RecordFile.append(file, bytes("third"));
+        flipBodyByte(file, broken);
+
+        assertThat(readAll(file)).containsExactly("first");
+        assertThat(Files.size(file)).isEqualTo(broken);
+    }
+
+    @Test
+    void 길이가_범위를_벗어나면_거기서_멈춘다() throws IOException {
+        Path file = dir.resolve("records.bin");
+        RecordFile.append(file, bytes("ok"));
+        long big = RecordFile.append(file, new byte[64]);
+
+        List<String> seen = new ArrayList<>();
+        int count = RecordFile.readAll(file, 32, "테스트", (offset, body) -> seen.add(new String(body, StandardCharsets.UTF_8)));
+        assertThat(count).isEqualTo(1);
+        assertThat(seen).containsExactly("ok");
+        assertThat(Files.size(file)).isEqualTo(big);
+    }
+
+    @Test
+    void 파일이_없으면_0건() throws IOException {
+        assertThat(RecordFile.readAll(dir.resolve("none.bin"), 1024, "테스트", (offset, body) -> {
+            throw new AssertionError("호출되면 안 됨");
+        })).isZero();
+    }
+
+    @Test
+    void 위치로_읽을_때_CRC_가_맞지_않으면_예외() throws IOException {
+        Path file = dir.resolve("records.bin");
+        long offset = RecordFile.append(file, bytes("payload"));
+        flipBodyByte(file, offset);
+
+        assertThatThrownBy(() -> RecordFile.read(file, offset))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("CRC");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "0", "0.000", "1", "-1", "18.04", "1391.250000", "-0.0001", "123456789012345678",
+            "9223372036854775807", "1E+30", "1.5E-100" })
+    void writeDecimal_은_값을_그대로_되돌린다(String value) throws IOException {
+        BigDecimal v = new BigDecimal(value);
+        BigDecimal back = roundTrip(v);
+        assertThat(back).isEqualByComparingTo(v);
+        // 뒤쪽 0은 떼어 저장한다
+        assertThat(back.scale()).isEqualTo(v.stripTrailingZeros().scale());
+    }
+
+    @Test
+    void long_에_안_들어가는_값은_18자리로_반올림한다() throws IOException {
+        BigDecimal v = new BigDecimal("12345678901234567890.123");
+        assertThat(roundTrip(v)).isEqualByComparingTo("12345678901234567900");
+        assertThat(roundTrip(v.negate())).isEqualByComparingTo("-12345678901234567900");
+    }
+
+    @Test
+    void 통화_코드는_3바이트() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            RecordFile.writeCode(out, "USD");
+            RecordFile.writeCode(out, "KRW");
+        }
+        assertThat(bos.size()).isEqualTo(6);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        assertThat(RecordFile.readCode(in)).isEqualTo("USD");
+        assertThat(RecordFile.readCode(in)).isEqualTo("KRW");
+    }
+
+    private static BigDecimal roundTrip(BigDecimal v) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            RecordFile.writeDecimal(out, v);
+        }
+        return RecordFile.readDecimal(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+    }
+
+    private static List<String> readAll(Path file) throws IOException {
+        List<String> out = new ArrayList<>();
+        RecordFile.readAll(file, 1024, "테스트", (offset, body) -> {
+            assertThat(RecordFile.read(file, offset)).isEqualTo(body);
+            out.add(new String(body, StandardCharsets.UTF_8));
+        });
+        return out;
+    }
+
+    // offset 레코드의 본문 첫 바이트를 뒤집는다
+    private static void flipBodyByte(Path file, long offset) throws IOException {
+        byte[] all = Files.readAllBytes(file);
+        all[(int) offset + 4] ^= 0x5A;
+        Files.write(file, all);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class StageScopeTest {
+
+    private static final Duration LONG = Duration.ofSeconds(30);
+
+    private final List<String> finished = new CopyOnWriteArrayList<>();
+    private final DailySummaryJob.StageListener listener = (stage, millis) -> finished.add(stage);
+
+    @Test
+    void 모든_단계가_끝나면_결과를_돌려주고_단계마다_알린다() {
+        try (StageScope scope = new StageScope(listener, LONG)) {
+            var a = scope.fork("a", () -> 1);
+            var b = scope.fork("b", () -> "two");
+            assertThat(a.join()).isEqualTo(1);
+            assertThat(b.join()).isEqualTo("two");
+        }
+        assertThat(finished).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void 한_단계가_실패하면_막혀_있는_단계를_취소하고_처음_오류를_던진다() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IllegalStateException boom = new IllegalStateException("boom");
+        try (StageScope scope = new StageScope(listener, LONG)) {
+            var blocked = scope.fork("blocked", () -> blockUntilInterrupted(interrupted));
+            var failing = scope.fork("failing", () -> {
+                Thread.sleep(50);
+                throw boom;
+            });
+
+            long t0 = System.nanoTime();
+            // 막힌 단계를 기다리던 쪽도 실패한 단계의 오류를 받는다
+            assertThatThrownBy(blocked::join).isSameAs(boom);
+            assertThat(Duration.ofNanos(System.nanoTime() - t0)).isLessThan(Duration.ofSeconds(5));
+            assertThatThrownBy(failing::join).isSameAs(boom);
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void 실패한_뒤에_붙인_단계는_돌리지_않는다() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        AtomicBoolean ran = new AtomicBoolean();
+        try (StageScope scope = new StageScope(listener, LONG)) {
+            var failing = scope.fork("failing", () -> {
+                throw boom;
+            });
+            assertThatThrownBy(failing::join).isSameAs(boom);
+            var late = scope.fork("late", () -> ran.getAndSet(true));
+            assertThatThrownBy(late::join).isSameAs(boom);
+        }
+        assertThat(ran).isFalse();
+        assertThat(finished).containsExactly("failing");
+    }
+
+    @Test
+    void 체크_예외는_IllegalStateException_으로_감싸_던진다() {
+        IOException io = new IOException("imap down");
+        try (StageScope scope = new StageScope(listener, LONG)) {
+            var failing = scope.fork("mailbox", () -> {
+                throw io;
+            });
+            assertThatThrownBy(failing::join).isInstanceOf(IllegalStateException.class).hasCause(io);
+        }
+    }
+
+    @Test
+    void 단계가_deadline_을_넘기면_실패로_보고_나머지를_취소한다() throws Exception {
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+        CountDownLatch otherInterrupted = new CountDownLatch(1);
+        try (StageScope scope = new StageScope(listener, Duration.ofMillis(200))) {
+            var slow = scope.fork("slow", () -> blockUntilInterrupted(slowInterrupted));
+            var other = scope.fork("other", () -> blockUntilInterrupted(otherInterrupted));
+
+            long t0 = System.nanoTime();
+            assertThatThrownBy(slow::join)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("slow 단계가");
+            Duration waited = Duration.ofNanos(System.nanoTime() - t0);
+            assertThat(waited).isGreaterThanOrEqualTo(Duration.ofMillis(150)).isLessThan(Duration.ofSeconds(5));
+
+            assertThat(slowInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(otherInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThatThrownBy(other::join).hasMessageContaining("slow 단계가");
+        }
+    }
+
+    @Test
+    void close_는_남은_단계를_인터럽트하고_끝날_때까지_기다린다() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        long t0 = System.nanoTime();
+        try (StageScope scope = new StageScope(listener, LONG)) {
+            scope.fork("left", () -> {
+                started.countDown();
+                return blockUntilInterrupted(interrupted);
+            });
+            // 시작 전에 취소되면 단계가 아예 돌지 않으므로 시작을 확인한 뒤 닫는다
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - t0)).isLessThan(Duration.ofSeconds(5));
+        assertThat(interrupted.getCount()).isZero();
+        // close 가 돌아왔을 때 단계는 이미 끝나 있다
+        assertThat(finished).containsExactly("left");
+    }
+
+    @Test
+    void 인터럽트를_무시하는_단계가_있어도_close_는_유예_시간_뒤에_돌아온다() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean release = new AtomicBoolean();
+        long t0 = System.nanoTime();
+        try (StageScope scope = new StageScope(listener, LONG)) {
+            scope.fork("stubborn", () -> {
+                started.countDown();
+                while (!release.get())
+                    Thread.onSpinWait();
+                return null;
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.set(true);
+        }
+        Duration took = Duration.ofNanos(System.nanoTime() - t0);
+        assertThat(took).isGreaterThanOrEqualTo(Duration.ofSeconds(4)).isLessThan(Duration.ofSeconds(10));
+    }
+
+    private static Void blockUntilInterrupted(CountDownLatch interrupted) throws InterruptedException {
+        try {
+            Thread.sleep(LONG);
+            return null;
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ramsbaby.preply.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ramsbaby.preply.config.AppProps;
+import com.ramsbaby.preply.dto.RunStatus;
+
+class SummaryRunServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 9, 20);
+    private static final int LOOK_BACK_DAYS = 7;
+
+    private final DailySummaryJob job = mock(DailySummaryJob.class);
+    private final MailOutbox outbox = mock(MailOutbox.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SummaryRunService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppProps props = new AppProps(null, null,
+                new AppProps.Gcal(null, null, "Asia/Seoul", null, LOOK_BACK_DAYS, false),
+                null, null, null, null, null, null, false, List.of(), null);
+        service = new SummaryRunService(job, props, new RunProfiler(props), outbox);
+        when(job.today()).thenReturn(TODAY);
+        when(job.generateAndSend(any(LocalDate.class), any())).thenAnswer(inv -> {
+            LocalDate date = inv.getArgument(0);
+            DailySummaryJob.StageListener stages = inv.getArgument(1);
+            assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+            stages.onStage("mailbox", 5);
+            return new DailySummaryJob.Result(date, "요약 (" + date + ")", 3, 0, new BigDecimal("123456"), List.of());
+        });
+        when(outbox.awaitDrained(any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void 진행_중인_같은_날짜_요청은_한_실행으로_묶고_끝난_뒤에는_새로_띄운다() throws Exception {
+        RunStatus first = service.submit(TODAY);
+        RunStatus second = service.submit(TODAY);
+        RunStatus implicitToday = service.submit();
+        assertThat(second.id()).isEqualTo(first.id());
+        assertThat(implicitToday.id()).isEqualTo(first.id());
+
+        release.countDown();
+        RunStatus done = awaitFinished(first.id());
+        assertThat(done.state()).isEqualTo("SUCCEEDED");
+        assertThat(done.result()).contains("요약 (2025-09-20)").contains("123,456원");
+        assertThat(done.stageMillis()).containsEntry("mailbox", 5L);
+        verify(job, times(1)).generateAndSend(eq(TODAY), any());
+
+        // 완료를 본 직후의 요청은 새 실행
+        RunStatus next = service.submit(TODAY);
+        assertThat(next.id()).isNotEqualTo(first.id());
+        awaitFinished(next.id());
+        verify(job, times(2)).generateAndSend(eq(TODAY), any());
+    }
+
+    @Test
+    void 날짜가_다르면_따로_실행한다() throws Exception {
+        RunStatus today = service.submit(TODAY);
+        RunStatus yesterday = service.submit(TODAY.minusDays(1));
+        assertThat(yesterday.id()).isNotEqualTo(today.id());
+        assertThat(yesterday.date()).isEqualTo(TODAY.minusDays(1));
+
+        release.countDown();
+        awaitFinished(today.id());
+        awaitFinished(yesterday.id());
+        verify(job).generateAndSend(eq(TODAY), any());
+        verify(job).generateAndSend(eq(TODAY.minusDays(1)), any());
+    }
+
+    @Test
+    void 미래_날짜와_lookBackDays_이전_날짜는_거부한다() {
+        assertThatThrownBy(() -> service.submit(TODAY.plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("미래 날짜");
+        assertThatThrownBy(() -> service.submit(TODAY.minusDays(LOOK_BACK_DAYS + 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(LOOK_BACK_DAYS + "일");
+        assertThat(service.submit(TODAY.minusDays(LOOK_BACK_DAYS)).date()).isEqualTo(TODAY.minusDays(LOOK_BACK_DAYS));
+    }
+
+    @Test
+    void 실패한_실행은_FAILED_로_남고_다음_요청은_새로_띄운다() throws Exception {
+        when(job.generateAndSend(eq(TODAY), any())).thenThrow(new IllegalStateException("IMAP 연결 실패"));
+        RunStatus failed = awaitFinished(service.submit(TODAY).id());
+        assertThat(failed.state()).isEqualTo("FAILED");
+        assertThat(failed.error()).contains("IMAP 연결 실패");
+        assertThat(service.submit(TODAY).id()).isNotEqualTo(failed.id());
+    }
+
+    @Test
+    void 실행_이력은_최근_50건만_남긴다() throws Exception {
+        release.countDown();
+        String first = service.submitAndWait(TODAY, Duration.ofSeconds(10)).id();
+        String last = first;
+        for (int i = 0; i < 50; i++)
+            last = service.submitAndWait(TODAY, Duration.ofSeconds(10)).id();
+
+        assertThat(service.find(first)).isEmpty();
+        assertThat(service.find(last)).get().extracting(RunStatus::state).isEqualTo("SUCCEEDED");
+        verify(job, times(51)).generateAndSend(eq(TODAY), any());
+    }
+
+    @Test
+    void submitAndWait_는_실행과_아웃박스_발송이_끝날_때까지_기다린다() throws Exception {
+        release.countDown();
+        RunStatus status = service.submitAndWait(null, Duration.ofSeconds(10));
+        assertThat(status.state()).isEqualTo("SUCCEEDED");
+        assertThat(status.finishedAt()).isNotNull();
+        verify(outbox).awaitDrained(any());
+    }
+
+    @Test
+    void submitAndWait_는_제한_시간이_지나면_진행_중_상태를_돌려준다() {
+        RunStatus status = service.submitAndWait(TODAY, Duration.ofMillis(100));
+        assertThat(status.state()).isIn("QUEUED", "RUNNING");
+        assertThat(status.finishedAt()).isNull();
+    }
+
+    private RunStatus awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            RunStatus s = service.find(id).orElseThrow();
+            if (s.finishedAt() != null)
+                return s;
+            Thread.sleep(5);
+        }
+        throw new AssertionError("실행이 끝나지 않음: " + id);
+    }
+}